@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.brekka.commons.lang.BaseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Constructing {@link BaseException} instances, which captures a stack trace and checks the message arguments.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseExceptionBenchmark {
+
+    private final IllegalStateException cause = new IllegalStateException("cause");
+
+    @Benchmark
+    public BaseException noArgs() {
+        return new BenchmarkException("Something went wrong");
+    }
+
+    @Benchmark
+    public BaseException withArgs() {
+        return new BenchmarkException("Item %s failed after %d attempts", "alpha", 3);
+    }
+
+    @Benchmark
+    public BaseException withCause() {
+        return new BenchmarkException(cause, "Item %s failed", "alpha");
+    }
+
+    @Benchmark
+    public String message() {
+        return new BenchmarkException("Item %s failed after %d attempts", "alpha", 3).getMessage();
+    }
+
+    /**
+     * Concrete exception to construct.
+     */
+    static final class BenchmarkException extends BaseException {
+        private static final long serialVersionUID = 1L;
+
+        BenchmarkException(final String message, final Object... messageArgs) {
+            super(message, messageArgs);
+        }
+
+        BenchmarkException(final Throwable cause, final String message, final Object... messageArgs) {
+            super(cause, message, messageArgs);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.brekka.commons.lang.ByteLengthFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting byte lengths with {@link ByteLengthFormat}.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteLengthFormatBenchmark {
+
+    @Param({ "SI", "BINARY" })
+    private ByteLengthFormat.Mode mode;
+
+    /**
+     * The magnitude of the value formatted, zero being under a kilobyte.
+     */
+    @Param({ "0", "1", "3" })
+    private int exponent;
+
+    private ByteLengthFormat format;
+
+    private Long value;
+
+    @Setup
+    public void setUp() {
+        format = new ByteLengthFormat(Locale.UK, mode);
+        value = Math.max(512L, (long) (Math.pow(mode.getDivisor(), exponent) * 1.5));
+    }
+
+    @Benchmark
+    public String format() {
+        return format.format(value);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.brekka.commons.io.CaseFolding;
+import org.brekka.commons.io.CharSequenceLocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Locating a pattern with {@link CharSequenceLocator}, both in bulk and through the per character
+ * {@link CharSequenceLocator#append(char)}.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharSequenceLocatorBenchmark {
+
+    @Param({ "1024", "65536", "1048576" })
+    private int size;
+
+    @Param({ "4", "16", "64" })
+    private int patternLength;
+
+    @Param({ "0", "1", "10" })
+    private int matchesPerKilo;
+
+    @Param({ "NONE", "ASCII" })
+    private CaseFolding folding;
+
+    private String pattern;
+
+    private char[] text;
+
+    @Setup
+    public void setUp() {
+        pattern = Inputs.pattern(patternLength);
+        text = Inputs.text(size, pattern, matchesPerKilo).toCharArray();
+    }
+
+    @Benchmark
+    public int find() {
+        CharSequenceLocator locator = new CharSequenceLocator(pattern, null, folding);
+        int matches = 0;
+        int pos = 0;
+        int found;
+        while ((found = locator.find(text, pos, text.length - pos)) != -1) {
+            matches++;
+            locator.clear();
+            pos = found;
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int append() {
+        CharSequenceLocator locator = new CharSequenceLocator(pattern, null, folding);
+        int matches = 0;
+        for (char c : text) {
+            locator.append(c);
+            if (locator.isFound()) {
+                matches++;
+                locator.clear();
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the inputs used by the benchmarks, deterministically so that runs can be compared.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+final class Inputs {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz     ,.\n";
+
+    private Inputs() {
+    }
+
+    /**
+     * A pattern of the given length that never occurs by chance in the text generated by
+     * {@link #text(int, String, int)}.
+     *
+     * @param length
+     *            the length of the pattern, at least 3
+     * @return the pattern
+     */
+    static String pattern(final int length) {
+        StringBuilder sb = new StringBuilder(length);
+        sb.append("${");
+        for (int i = 0; i < length - 3; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Random text containing the pattern at random positions.
+     *
+     * @param size
+     *            the number of characters
+     * @param pattern
+     *            the pattern to insert
+     * @param matchesPerKilo
+     *            how many times the pattern occurs per thousand characters, on average
+     * @return the text
+     */
+    static String text(final int size, final String pattern, final int matchesPerKilo) {
+        Random random = new Random(size * 31L + pattern.length() * 7L + matchesPerKilo);
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            if (matchesPerKilo > 0 && random.nextInt(1000) < matchesPerKilo
+                    && sb.length() + pattern.length() <= size) {
+                sb.append(pattern);
+            } else {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.brekka.commons.io.CharSequenceLocator;
+import org.brekka.commons.io.StringReplacingReader;
+import org.brekka.commons.io.StringReplacingWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Replacement through {@link StringReplacingReader} and {@link StringReplacingWriter}, including the cost of creating
+ * the locator for each stream.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringReplacingBenchmark {
+
+    private static final String REPLACEMENT = "replacement";
+
+    @Param({ "1024", "65536", "1048576" })
+    private int size;
+
+    @Param({ "4", "16", "64" })
+    private int patternLength;
+
+    @Param({ "0", "1", "10" })
+    private int matchesPerKilo;
+
+    private String pattern;
+
+    private String text;
+
+    private char[] textChars;
+
+    private final char[] readBuffer = new char[8192];
+
+    @Setup
+    public void setUp() {
+        pattern = Inputs.pattern(patternLength);
+        text = Inputs.text(size, pattern, matchesPerKilo);
+        textChars = text.toCharArray();
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        int total = 0;
+        try (StringReplacingReader reader = new StringReplacingReader(new StringReader(text),
+                new CharSequenceLocator(pattern), REPLACEMENT)) {
+            int count;
+            while ((count = reader.read(readBuffer, 0, readBuffer.length)) != -1) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void writeChars(final Blackhole blackhole) throws IOException {
+        try (Writer writer = new StringReplacingWriter(new BlackholeWriter(blackhole),
+                new CharSequenceLocator(pattern), REPLACEMENT)) {
+            writer.write(textChars, 0, textChars.length);
+        }
+    }
+
+    @Benchmark
+    public void writeString(final Blackhole blackhole) throws IOException {
+        try (Writer writer = new StringReplacingWriter(new BlackholeWriter(blackhole),
+                new CharSequenceLocator(pattern), REPLACEMENT)) {
+            writer.write(text);
+        }
+    }
+
+    /**
+     * Consumes everything written to it.
+     */
+    static final class BlackholeWriter extends Writer {
+        private final Blackhole blackhole;
+
+        BlackholeWriter(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) {
+            blackhole.consume(cbuf);
+            blackhole.consume(len);
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) {
+            blackhole.consume(str);
+            blackhole.consume(len);
+        }
+
+        @Override
+        public Writer append(final CharSequence csq, final int start, final int end) {
+            blackhole.consume(csq);
+            blackhole.consume(end - start);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            // Nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+    }
+}
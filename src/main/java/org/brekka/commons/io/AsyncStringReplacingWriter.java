@@ -0,0 +1,433 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stream based {@link String} replacement as a {@link Writer}, where the locating, replacing and writing to the
+ * underlying writer happens on a worker. Writes only copy characters into a ring of reusable chunks, blocking only when
+ * every chunk is waiting for the worker. {@link #flush()} and {@link #close()} wait for the worker to catch up, and any
+ * failure on the worker is thrown from the next call made to this writer.
+ * <p>
+ * The worker is started on the {@link Executor} supplied, which could for example be one that starts a virtual thread
+ * per task. It runs until this writer is closed, or the first failure. The executor must run the worker on another
+ * thread; one that runs tasks on the calling thread, such as <code>Runnable::run</code> or a pool saturated with
+ * {@link java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy}, is rejected by the constructor. If the worker
+ * thread is interrupted while waiting for work it stops, the interrupt being reported as the failure.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class AsyncStringReplacingWriter extends Writer {
+
+    /**
+     * Default number of characters in each chunk.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * Default number of chunks.
+     */
+    private static final int DEFAULT_CHUNK_COUNT = 4;
+
+    /**
+     * Performs the replacement, only used by the worker.
+     */
+    private final StringReplacingWriter delegate;
+
+    /**
+     * The ring of chunks.
+     */
+    private final char[][] chunks;
+
+    /**
+     * How many characters of each published chunk are in use.
+     */
+    private final int[] lengths;
+
+    /**
+     * Guards the positions within the ring and the worker's progress.
+     */
+    private final ReentrantLock ringLock = new ReentrantLock();
+
+    /**
+     * Signalled when the worker has something to do.
+     */
+    private final Condition work = ringLock.newCondition();
+
+    /**
+     * Signalled when the worker has made progress.
+     */
+    private final Condition progress = ringLock.newCondition();
+
+    /**
+     * The number of chunks handed to the worker.
+     */
+    private long published;
+
+    /**
+     * The number of chunks the worker has finished with.
+     */
+    private long consumed;
+
+    /**
+     * How many characters of the chunk being filled are in use, that chunk being the one after the last published.
+     */
+    private int fillLength;
+
+    /**
+     * The number of flushes requested.
+     */
+    private long flushRequested;
+
+    /**
+     * The number of flushes the worker has completed.
+     */
+    private long flushCompleted;
+
+    /**
+     * Whether the worker should close the underlying writer once the ring is empty.
+     */
+    private boolean closing;
+
+    /**
+     * Whether the worker has closed the underlying writer and stopped.
+     */
+    private boolean closed;
+
+    /**
+     * The first failure encountered by the worker.
+     */
+    private Throwable failure;
+
+    /**
+     * The thread that constructed this writer, which the worker must not run on.
+     */
+    private final Thread creator = Thread.currentThread();
+
+    /**
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param executor
+     *            runs the worker.
+     */
+    public AsyncStringReplacingWriter(final Writer writer, final CharSequenceLocator locator, final String replacement,
+            final Executor executor) {
+        this(writer, locator, replacement, executor, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_COUNT);
+    }
+
+    /**
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param executor
+     *            runs the worker, which must be on a thread other than the caller's.
+     * @param chunkSize
+     *            the number of characters in each chunk.
+     * @param chunkCount
+     *            the number of chunks, which bounds how far the worker can fall behind.
+     */
+    public AsyncStringReplacingWriter(final Writer writer, final CharSequenceLocator locator, final String replacement,
+            final Executor executor, final int chunkSize, final int chunkCount) {
+        this(writer, locator, replacement, executor, chunkSize, chunkCount, null);
+    }
+
+    /**
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param executor
+     *            runs the worker, which must be on a thread other than the caller's.
+     * @param chunkSize
+     *            the number of characters in each chunk.
+     * @param chunkCount
+     *            the number of chunks, which bounds how far the worker can fall behind.
+     * @param statistics
+     *            if not null, updated by the worker with the work done.
+     */
+    public AsyncStringReplacingWriter(final Writer writer, final CharSequenceLocator locator, final String replacement,
+            final Executor executor, final int chunkSize, final int chunkCount,
+            final ReplacementStatistics statistics) {
+        Objects.requireNonNull(executor, "An executor must be specified");
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be greater than zero");
+        }
+        if (chunkCount < 2) {
+            throw new IllegalArgumentException("There must be at least two chunks");
+        }
+        this.delegate = new StringReplacingWriter(writer, locator, replacement, statistics);
+        this.chunks = new char[chunkCount][chunkSize];
+        this.lengths = new int[chunkCount];
+        executor.execute(this::work);
+        ringLock.lock();
+        try {
+            if (failure instanceof RejectedWorkerException) {
+                throw new IllegalArgumentException("The executor ran the worker on the calling thread, "
+                        + "it must be run on another thread", failure);
+            }
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        copy(cbuf, null, off, off + len);
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        copy(null, str, off, off + len);
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        CharSequence seq = csq != null ? csq : "null";
+        copy(null, seq, 0, seq.length());
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        copy(null, csq != null ? csq : "null", start, end);
+        return this;
+    }
+
+    /**
+     * Wait for everything written so far to be passed through the worker, then flush the underlying writer.
+     */
+    @Override
+    public void flush() throws IOException {
+        synchronized (lock) {
+            ringLock.lock();
+            try {
+                checkOpen();
+                publish();
+                long target = ++flushRequested;
+                work.signal();
+                while (flushCompleted < target && failure == null) {
+                    await();
+                }
+                checkFailure();
+            } finally {
+                ringLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Wait for everything written so far to be passed through the worker, then close the underlying writer.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            ringLock.lock();
+            try {
+                if (closing) {
+                    return;
+                }
+                if (failure == null) {
+                    publish();
+                }
+                closing = true;
+                work.signal();
+                while (!closed && failure == null) {
+                    await();
+                }
+                if (failure != null && !closed) {
+                    // The worker has stopped, so the underlying writer is ours to close
+                    closeQuietly();
+                }
+                checkFailure();
+            } finally {
+                ringLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Copy characters from either <code>cbuf</code> or <code>seq</code> into the ring, publishing each chunk as it
+     * fills.
+     */
+    private void copy(final char[] cbuf, final CharSequence seq, final int start, final int end) throws IOException {
+        synchronized (lock) {
+            checkOpen();
+            checkFailure();
+            int pos = start;
+            while (pos < end) {
+                char[] chunk = chunks[(int) (published % chunks.length)];
+                int count = Math.min(chunk.length - fillLength, end - pos);
+                if (cbuf != null) {
+                    System.arraycopy(cbuf, pos, chunk, fillLength, count);
+                } else {
+                    CharSequences.getChars(seq, pos, pos + count, chunk, fillLength);
+                }
+                fillLength += count;
+                pos += count;
+                if (fillLength == chunk.length) {
+                    ringLock.lock();
+                    try {
+                        publish();
+                        checkFailure();
+                    } finally {
+                        ringLock.unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Hand the chunk being filled to the worker, if it contains anything, then wait for the next one to be free.
+     */
+    private void publish() throws IOException {
+        if (fillLength == 0) {
+            return;
+        }
+        lengths[(int) (published % chunks.length)] = fillLength;
+        published++;
+        fillLength = 0;
+        work.signal();
+        while (published - consumed == chunks.length && failure == null) {
+            await();
+        }
+    }
+
+    private void await() throws IOException {
+        try {
+            progress.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ex = new InterruptedIOException("Interrupted waiting for the worker");
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    private void checkOpen() {
+        if (closing) {
+            throw new IllegalStateException("This writer is closed");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable t;
+        ringLock.lock();
+        try {
+            t = failure;
+        } finally {
+            ringLock.unlock();
+        }
+        if (t != null) {
+            throw new IOException("The worker failed to write", t);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            delegate.close();
+        } catch (IOException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * The worker, which processes chunks in the order they were published until closed.
+     */
+    private void work() {
+        ringLock.lock();
+        try {
+            if (Thread.currentThread() == creator) {
+                // Waiting for work here would never return, as nothing can be written until the constructor does
+                throw new RejectedWorkerException();
+            }
+            while (true) {
+                if (consumed < published) {
+                    int index = (int) (consumed % chunks.length);
+                    ringLock.unlock();
+                    try {
+                        delegate.write(chunks[index], 0, lengths[index]);
+                    } finally {
+                        ringLock.lock();
+                    }
+                    consumed++;
+                    progress.signalAll();
+                } else if (flushCompleted < flushRequested) {
+                    long target = flushRequested;
+                    ringLock.unlock();
+                    try {
+                        delegate.flush();
+                    } finally {
+                        ringLock.lock();
+                    }
+                    flushCompleted = target;
+                    progress.signalAll();
+                } else if (closing) {
+                    ringLock.unlock();
+                    try {
+                        delegate.close();
+                    } finally {
+                        ringLock.lock();
+                    }
+                    closed = true;
+                    progress.signalAll();
+                    return;
+                } else {
+                    work.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ex = new InterruptedIOException("The worker was interrupted");
+            ex.initCause(e);
+            failure = ex;
+            progress.signalAll();
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            progress.signalAll();
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the worker as having been run on the thread constructing the writer.
+     */
+    private static final class RejectedWorkerException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        RejectedWorkerException() {
+            super("The worker cannot run on the thread that constructed the writer");
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Byte level counterpart to {@link CharSequenceLocator}, for identifying a sequence of bytes within a stream of bytes.
+ * The same streaming semantics apply, including the <code>mustNotFollow</code> guard.
+ * <p>
+ * Patterns encoded as UTF-8 can be safely located directly within UTF-8 encoded data, as no encoded character can
+ * begin part way through another. This avoids decoding to characters and encoding again just to perform replacement.
+ * <p>
+ * Between matches, bytes that cannot start one are skipped over eight at a time for direct buffers.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ByteSequenceLocator {
+    /**
+     * The static byte sequence to locate.
+     */
+    private final byte[] toLocate;
+
+    /**
+     * Failure function for <code>toLocate</code>, the length of the longest proper prefix that is also a suffix of
+     * each prefix.
+     */
+    private final int[] failure;
+
+    /**
+     * The <code>mustNotFollow</code> sequence followed by <code>toLocate</code>, a match for which indicates that
+     * <code>toLocate</code> has been found but should be ignored. Null when there is no such sequence.
+     */
+    private final byte[] guarded;
+
+    /**
+     * Failure function for <code>guarded</code>.
+     */
+    private final int[] guardedFailure;
+
+    /**
+     * The first byte of <code>toLocate</code>.
+     */
+    private final byte first;
+
+    /**
+     * <code>first</code> repeated across each byte of a long, for comparing eight bytes at a time.
+     */
+    private final long firstWord;
+
+    /**
+     * How many bytes of <code>toLocate</code> the most recent bytes match.
+     */
+    private int matched;
+
+    /**
+     * How many bytes of <code>guarded</code> the most recent bytes match.
+     */
+    private int guardedMatched;
+
+    /**
+     * @param toLocate
+     *            the byte sequence to locate
+     */
+    public ByteSequenceLocator(final byte[] toLocate) {
+        this(toLocate, null);
+    }
+
+    /**
+     * @param toLocate
+     *            the byte sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     */
+    public ByteSequenceLocator(final byte[] toLocate, final byte[] mustNotFollow) {
+        Objects.requireNonNull(toLocate, "The bytes to locate must be specified");
+        if (toLocate.length == 0) {
+            throw new IllegalArgumentException("The bytes to locate cannot be empty");
+        }
+        this.toLocate = toLocate.clone();
+        this.failure = failureOf(this.toLocate);
+        this.first = this.toLocate[0];
+        this.firstWord = (first & 0xFFL) * 0x0101010101010101L;
+        if (mustNotFollow != null && mustNotFollow.length > 0) {
+            this.guarded = new byte[mustNotFollow.length + toLocate.length];
+            System.arraycopy(mustNotFollow, 0, this.guarded, 0, mustNotFollow.length);
+            System.arraycopy(toLocate, 0, this.guarded, mustNotFollow.length, toLocate.length);
+            this.guardedFailure = failureOf(this.guarded);
+        } else {
+            this.guarded = null;
+            this.guardedFailure = null;
+        }
+    }
+
+    /**
+     * Determine whether the most recent bytes match the byte sequence we are looking for.
+     *
+     * @return true if <code>toLocate</code> has just been found.
+     */
+    public boolean isFound() {
+        return matched == toLocate.length
+                && (guarded == null || guardedMatched != guarded.length);
+    }
+
+    /**
+     * Feed the bytes of <code>buf</code> from <code>off</code> into the locator, stopping as soon as the byte sequence
+     * is found.
+     *
+     * @param buf
+     *            the bytes to check
+     * @param off
+     *            the index of the first byte to check
+     * @param len
+     *            the number of bytes to check
+     * @return the index after the byte that completed the match, or -1 if all of the bytes were consumed without the
+     *         sequence being found.
+     */
+    public int find(final byte[] buf, final int off, final int len) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (matched == 0) {
+                int from = i;
+                while (i < end && buf[i] != first) {
+                    i++;
+                }
+                primeGuard(buf, from, i);
+                if (i == end) {
+                    break;
+                }
+            }
+            step(buf[i++]);
+            if (isFound()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * As {@link #find(byte[], int, int)} but for the content of a {@link ByteBuffer}, which may be direct. The position
+     * and limit of the buffer are not used or modified.
+     *
+     * @param buf
+     *            the bytes to check
+     * @param start
+     *            the absolute index of the first byte to check
+     * @param end
+     *            the absolute index after the last byte to check
+     * @return the index after the byte that completed the match, or -1 if all of the bytes were consumed without the
+     *         sequence being found.
+     */
+    public int find(final ByteBuffer buf, final int start, final int end) {
+        int i = start;
+        while (i < end) {
+            if (matched == 0) {
+                int from = i;
+                i = skip(buf, i, end);
+                primeGuard(buf, from, i);
+                if (i == end) {
+                    break;
+                }
+            }
+            step(buf.get(i++));
+            if (isFound()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Feed bytes that precede the region about to be searched to the <code>mustNotFollow</code> guard only, so that a
+     * search can start part way through a stream without the guard missing what came before. Only the last
+     * <code>mustNotFollow.length</code> bytes are relevant.
+     *
+     * @param buf
+     *            the preceding bytes
+     * @param start
+     *            the absolute index of the first byte
+     * @param end
+     *            the absolute index after the last byte
+     */
+    void prime(final ByteBuffer buf, final int start, final int end) {
+        if (guarded == null) {
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, buf.get(i));
+        }
+    }
+
+    /**
+     * @return the length of the byte sequence being located.
+     */
+    int getLength() {
+        return toLocate.length;
+    }
+
+    /**
+     * @return the length of the <code>mustNotFollow</code> guard, zero if there is none.
+     */
+    int getGuardLength() {
+        return guarded != null ? guarded.length - toLocate.length : 0;
+    }
+
+    /**
+     * The number of trailing bytes that have been passed to the locator which could still turn out to be part of a
+     * match. All bytes before these can be safely released. When {@link #isFound()} is true, this is the length of
+     * the match.
+     *
+     * @return the number of bytes
+     */
+    public int getCandidateLength() {
+        return matched;
+    }
+
+    /**
+     * Reset the locator, typically after a match has been handled.
+     */
+    public void clear() {
+        matched = 0;
+        guardedMatched = 0;
+    }
+
+    private void step(final byte b) {
+        matched = advance(toLocate, failure, matched, b);
+        if (guarded != null) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, b);
+        }
+    }
+
+    /**
+     * Find the next byte from <code>from</code> that could start a match. Direct buffers are read a long at a time, the
+     * bytes equal to <code>first</code> being those that come out as zero once the word is XORed with
+     * <code>firstWord</code>.
+     *
+     * @return the index of the candidate, or <code>end</code> if there is none.
+     */
+    private int skip(final ByteBuffer buf, final int from, final int end) {
+        int i = from;
+        if (buf.isDirect()) {
+            boolean bigEndian = buf.order() == ByteOrder.BIG_ENDIAN;
+            while (i + 8 <= end) {
+                long v = buf.getLong(i) ^ firstWord;
+                // High bit set in each byte of v that is zero, with no borrow between bytes
+                long zeros = ~(((v & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL) | v | 0x7F7F7F7F7F7F7F7FL);
+                if (zeros != 0) {
+                    int bit = bigEndian ? Long.numberOfLeadingZeros(zeros) : Long.numberOfTrailingZeros(zeros);
+                    return i + (bit >>> 3);
+                }
+                i += 8;
+            }
+        }
+        while (i < end && buf.get(i) != first) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Bring the guard automaton up to date with skipped bytes. Its state depends only on the last
+     * <code>guarded.length - 1</code> bytes, so where more than that have been skipped it restarts from there.
+     */
+    private void primeGuard(final byte[] buf, final int from, final int to) {
+        if (guarded == null || from == to) {
+            return;
+        }
+        int start = from;
+        if (to - from >= guarded.length - 1) {
+            guardedMatched = 0;
+            start = to - (guarded.length - 1);
+        }
+        for (int i = start; i < to; i++) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, buf[i]);
+        }
+    }
+
+    private void primeGuard(final ByteBuffer buf, final int from, final int to) {
+        if (guarded == null || from == to) {
+            return;
+        }
+        int start = from;
+        if (to - from >= guarded.length - 1) {
+            guardedMatched = 0;
+            start = to - (guarded.length - 1);
+        }
+        for (int i = start; i < to; i++) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, buf.get(i));
+        }
+    }
+
+    /**
+     * Move the automaton for <code>pattern</code> on by one byte.
+     */
+    private static int advance(final byte[] pattern, final int[] failure, int state, final byte b) {
+        if (state == pattern.length) {
+            state = failure[state - 1];
+        }
+        while (state > 0 && pattern[state] != b) {
+            state = failure[state - 1];
+        }
+        if (pattern[state] == b) {
+            state++;
+        }
+        return state;
+    }
+
+    /**
+     * Build the Knuth-Morris-Pratt failure function for <code>pattern</code>.
+     */
+    private static int[] failureOf(final byte[] pattern) {
+        int[] failure = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+}
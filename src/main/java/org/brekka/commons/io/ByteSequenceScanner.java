@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Reports the byte offsets at which a byte sequence occurs, rather than replacing it. The offset of the first byte of
+ * each match is passed to a {@link LongConsumer} (such as {@link LongArraySink}), and nothing else is copied. Channels
+ * are read through a direct buffer. Matches are located exactly as they would be for replacement, so they never
+ * overlap.
+ * <p>
+ * Not thread safe, as the locator holds the state of the scan.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ByteSequenceScanner {
+    /**
+     * Default size of the buffer used to read from channels.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Locates the sequence being searched for.
+     */
+    private final ByteSequenceLocator locator;
+
+    /**
+     * Reused to read from channels, created on first use.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * @param locator
+     *            used to locate the sequence
+     */
+    public ByteSequenceScanner(final ByteSequenceLocator locator) {
+        Objects.requireNonNull(locator, "A locator must be specified");
+        this.locator = locator;
+    }
+
+    /**
+     * Scan all of the bytes from a channel. The channel is not closed.
+     *
+     * @param channel
+     *            the bytes to scan
+     * @param offsets
+     *            receives the offset (from the point at which the channel was passed) of each match
+     * @return the number of matches
+     * @throws IOException
+     *             if the channel fails
+     */
+    public long scan(final ReadableByteChannel channel, final LongConsumer offsets) throws IOException {
+        Objects.requireNonNull(channel, "A channel must be specified");
+        Objects.requireNonNull(offsets, "An offset consumer must be specified");
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+        }
+        locator.clear();
+        long base = 0;
+        long count = 0;
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            int limit = buffer.position();
+            int pos = 0;
+            int found;
+            while ((found = locator.find(buffer, pos, limit)) != -1) {
+                offsets.accept(base + found - locator.getCandidateLength());
+                locator.clear();
+                count++;
+                pos = found;
+            }
+            base += limit;
+            buffer.clear();
+        }
+        return count;
+    }
+
+    /**
+     * Scan all of the bytes from a stream. The stream is not closed.
+     *
+     * @param in
+     *            the bytes to scan
+     * @param offsets
+     *            receives the offset (from the point at which the stream was passed) of each match
+     * @return the number of matches
+     * @throws IOException
+     *             if the stream fails
+     */
+    public long scan(final InputStream in, final LongConsumer offsets) throws IOException {
+        Objects.requireNonNull(in, "An input stream must be specified");
+        return scan(Channels.newChannel(in), offsets);
+    }
+
+    /**
+     * Scan the remaining content of a buffer, such as a {@link java.nio.MappedByteBuffer}. Offsets are relative to the
+     * position of the buffer, which is left unchanged.
+     *
+     * @param buf
+     *            the bytes to scan
+     * @param offsets
+     *            receives the offset of each match
+     * @return the number of matches
+     */
+    public long scan(final ByteBuffer buf, final LongConsumer offsets) {
+        Objects.requireNonNull(buf, "A buffer must be specified");
+        Objects.requireNonNull(offsets, "An offset consumer must be specified");
+        locator.clear();
+        long count = 0;
+        int start = buf.position();
+        int pos = start;
+        int found;
+        while ((found = locator.find(buf, pos, buf.limit())) != -1) {
+            offsets.accept(found - locator.getCandidateLength() - start);
+            locator.clear();
+            count++;
+            pos = found;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+/**
+ * How characters are folded before being compared when locating a character sequence. Folding is applied one character
+ * at a time, never allocates, and only affects comparison - the characters themselves are left as they were.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public enum CaseFolding {
+
+    /**
+     * Characters must match exactly.
+     */
+    NONE {
+        @Override
+        public char fold(final char c) {
+            return c;
+        }
+    },
+
+    /**
+     * The ASCII letters <code>A-Z</code> match <code>a-z</code>, all other characters must match exactly.
+     */
+    ASCII {
+        @Override
+        public char fold(final char c) {
+            if (c >= 'A' && c <= 'Z') {
+                return (char) (c + ('a' - 'A'));
+            }
+            return c;
+        }
+    },
+
+    /**
+     * Simple (one to one) Unicode case folding, following the same rules as {@link String#equalsIgnoreCase(String)}.
+     * ASCII characters take a fast path.
+     */
+    UNICODE {
+        @Override
+        public char fold(final char c) {
+            if (c < 128) {
+                return ASCII.fold(c);
+            }
+            return Character.toLowerCase(Character.toUpperCase(c));
+        }
+    };
+
+    /**
+     * @param c
+     *            the character to fold
+     * @return the folded form of the character
+     */
+    public abstract char fold(char c);
+
+    /**
+     * @param chars
+     *            the characters to fold in place
+     * @return <code>chars</code>
+     */
+    char[] fold(final char[] chars) {
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return chars;
+    }
+}
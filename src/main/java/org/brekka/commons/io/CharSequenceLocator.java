@@ -16,24 +16,59 @@
 
 package org.brekka.commons.io;
 
-import java.util.Objects;
-
 /**
- * Helper class for identifying a character sequence within a stream of characters. This is implemented internally
- * as a cyclic buffer.
+ * Helper class for identifying a character sequence within a stream of characters. Matching is performed by a
+ * Knuth-Morris-Pratt automaton so each character costs amortized constant time regardless of the length of the
+ * sequence. The characters themselves are retained in a cyclic buffer.
+ * <p>
+ * Matching can optionally ignore case (see {@link CaseFolding}), in which case the characters retained and released
+ * keep their original case.
  *
  * @author Andrew Taylor (andrew@brekka.org)
  */
 public class CharSequenceLocator {
     /**
-     * The static character sequence to locate.
+     * The static character sequence to locate. This and the other pattern tables come from a {@link LocatorPattern}
+     * and may be shared with other locators.
      */
     private final char[] toLocate;
 
     /**
-     * Sequence of characters that must not precede the string being looked for.
+     * How characters are folded before comparison. <code>toLocate</code> and <code>guarded</code> are already folded.
+     */
+    private final CaseFolding folding;
+
+    /**
+     * Failure function for <code>toLocate</code>, the length of the longest proper prefix that is also a suffix of
+     * each prefix.
+     */
+    private final int[] failure;
+
+    /**
+     * The <code>mustNotFollow</code> sequence followed by <code>toLocate</code>, a match for which indicates that
+     * <code>toLocate</code> has been found but should be ignored. Null when there is no such sequence.
+     */
+    private final char[] guarded;
+
+    /**
+     * Failure function for <code>guarded</code>.
+     */
+    private final int[] guardedFailure;
+
+    /**
+     * Whether characters that cannot start a match can be skipped, see {@link LocatorPattern#skippable}.
      */
-    private final char[] mustNotFollow;
+    private final boolean skippable;
+
+    /**
+     * The first character of <code>toLocate</code>.
+     */
+    private final char first;
+
+    /**
+     * The other character that folds to <code>first</code>, or <code>first</code> again.
+     */
+    private final char firstAlt;
 
     /**
      * The cyclic buffer
@@ -51,9 +86,14 @@ public class CharSequenceLocator {
     private int length;
 
     /**
-     * How many additional characters are available.
+     * How many characters of <code>toLocate</code> the most recent characters match.
      */
-    private int followLength;
+    private int matched;
+
+    /**
+     * How many characters of <code>guarded</code> the most recent characters match.
+     */
+    private int guardedMatched;
 
     /**
      * @param toLocate
@@ -67,41 +107,48 @@ public class CharSequenceLocator {
      * @param toLocate
      *            the character sequence to locate
      * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
      */
     public CharSequenceLocator(final String toLocate, final String mustNotFollow) {
-        Objects.requireNonNull(toLocate, "The string to locate must be specified");
-        this.toLocate = toLocate.toCharArray();
-        this.mustNotFollow = mustNotFollow != null ? mustNotFollow.toCharArray() : null;
-        this.buffer = new char[this.toLocate.length + (this.mustNotFollow != null ? this.mustNotFollow.length : 0)];
+        this(toLocate, mustNotFollow, CaseFolding.NONE);
+    }
+
+    /**
+     * @param toLocate
+     *            the character sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     * @param folding
+     *            how characters are folded before comparison, applies to both sequences.
+     */
+    public CharSequenceLocator(final String toLocate, final String mustNotFollow, final CaseFolding folding) {
+        this(new LocatorPattern(toLocate, mustNotFollow, folding));
+    }
+
+    /**
+     * @param pattern
+     *            the compiled sequence to locate, which is shared rather than copied.
+     */
+    CharSequenceLocator(final LocatorPattern pattern) {
+        this.folding = pattern.folding;
+        this.toLocate = pattern.toLocate;
+        this.failure = pattern.failure;
+        this.guarded = pattern.guarded;
+        this.guardedFailure = pattern.guardedFailure;
+        this.skippable = pattern.skippable;
+        this.first = pattern.first;
+        this.firstAlt = pattern.firstAlt;
+        this.buffer = new char[this.toLocate.length];
     }
 
     /**
-     * Determine whether the current contents of the buffer match the character sequence we are looking for.
+     * Determine whether the most recent characters match the character sequence we are looking for.
      *
      * @return true if <code>toLocate</code> matches the current buffer.
      */
     public boolean isFound() {
-        if (length != toLocate.length) {
-            return false;
-        }
-        int cursor = tailPointer;
-        for (int i = toLocate.length - 1; i >= 0; i--) {
-            if (toLocate[i] != buffer[cursor]) {
-                return false;
-            }
-            cursor = decrement(cursor, 1);
-        }
-        if (mustNotFollow != null
-                && followLength == mustNotFollow.length) {
-            for (int i = mustNotFollow.length - 1; i >= 0; i--) {
-                if (mustNotFollow[i] != buffer[cursor]) {
-                    return true;
-                }
-                cursor = decrement(cursor, 1);
-            }
-            return false;
-        }
-        return true;
+        return matched == toLocate.length
+                && (guarded == null || guardedMatched != guarded.length);
     }
 
     /**
@@ -131,16 +178,91 @@ public class CharSequenceLocator {
         }
         if (length < toLocate.length) {
             length++;
-        } else if (mustNotFollow != null
-                && followLength < mustNotFollow.length) {
-            followLength++;
         }
-        int replaceIndex = decrement(tailPointer, toLocate.length);
-        char replaced = buffer[replaceIndex];
+        // The buffer is exactly the length of the sequence, so the head is the slot being overwritten
+        char replaced = buffer[tailPointer];
         buffer[tailPointer] = character;
+        step(character);
         return replaced;
     }
 
+    /**
+     * Feed the characters of <code>cbuf</code> from <code>off</code> into the locator, stopping as soon as the
+     * character sequence is found. This is equivalent to calling {@link #append(char)} followed by {@link #isFound()}
+     * for each character, except that the characters are not retained in the buffer, leaving the caller free to handle
+     * the characters that are not part of a match in bulk.
+     *
+     * @param cbuf
+     *            the characters to check
+     * @param off
+     *            the index of the first character to check
+     * @param len
+     *            the number of characters to check
+     * @return the index after the character that completed the match, or -1 if all of the characters were consumed
+     *         without the sequence being found.
+     */
+    public int find(final char[] cbuf, final int off, final int len) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (matched == 0 && skippable) {
+                int from = i;
+                i = skip(cbuf, i, end);
+                primeGuard(cbuf, from, i);
+                if (i == end) {
+                    break;
+                }
+            }
+            step(cbuf[i++]);
+            if (isFound()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * As {@link #find(char[], int, int)} but for any {@link CharSequence}.
+     *
+     * @param seq
+     *            the characters to check
+     * @param start
+     *            the index of the first character to check
+     * @param end
+     *            the index after the last character to check
+     * @return the index after the character that completed the match, or -1 if all of the characters were consumed
+     *         without the sequence being found.
+     */
+    public int find(final CharSequence seq, final int start, final int end) {
+        int i = start;
+        while (i < end) {
+            if (matched == 0 && skippable) {
+                int from = i;
+                i = skip(seq, i, end);
+                primeGuard(seq, from, i);
+                if (i == end) {
+                    break;
+                }
+            }
+            step(seq.charAt(i++));
+            if (isFound()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The number of trailing characters that have been passed to the locator which could still turn out to be part
+     * of a match. All characters before these can be safely released. When {@link #isFound()} is true, this is the
+     * length of the match.
+     *
+     * @return the number of characters
+     */
+    public int getCandidateLength() {
+        return matched;
+    }
+
     /**
      * The number of characters currently in the buffer.
      *
@@ -163,6 +285,7 @@ public class CharSequenceLocator {
             cursor = decrement(cursor, 1);
         }
         length = 0;
+        matched = 0;
         return arr;
     }
 
@@ -172,7 +295,97 @@ public class CharSequenceLocator {
     public void clear() {
         tailPointer = 0;
         length = 0;
-        followLength = 0;
+        matched = 0;
+        guardedMatched = 0;
+    }
+
+    private void step(final char character) {
+        char c = folding == CaseFolding.NONE ? character : folding.fold(character);
+        matched = advance(toLocate, failure, matched, c);
+        if (guarded != null) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, c);
+        }
+    }
+
+    /**
+     * Find the next character from <code>from</code> that could start a match, none of those before it being able to
+     * affect the match automaton while it is at its initial state.
+     *
+     * @return the index of the candidate, or <code>end</code> if there is none.
+     */
+    private int skip(final char[] cbuf, final int from, final int end) {
+        int i = from;
+        if (first == firstAlt) {
+            while (i < end && cbuf[i] != first) {
+                i++;
+            }
+        } else {
+            while (i < end && cbuf[i] != first && cbuf[i] != firstAlt) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private int skip(final CharSequence seq, final int from, final int end) {
+        if (seq instanceof String && seq.length() - end <= end - from) {
+            // The intrinsic search can't be bounded, so only use it when it won't run too far past the end.
+            String str = (String) seq;
+            int found = indexOf(str, first, from, end);
+            if (firstAlt != first) {
+                found = Math.min(found, indexOf(str, firstAlt, from, found));
+            }
+            return found;
+        }
+        int i = from;
+        while (i < end) {
+            char c = seq.charAt(i);
+            if (c == first || c == firstAlt) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(final String str, final char c, final int from, final int end) {
+        if (from >= end) {
+            return end;
+        }
+        int found = str.indexOf(c, from);
+        return found == -1 || found > end ? end : found;
+    }
+
+    /**
+     * Bring the guard automaton up to date with skipped characters. Its state depends only on the last
+     * <code>guarded.length - 1</code> characters, so where more than that have been skipped it restarts from there.
+     */
+    private void primeGuard(final char[] cbuf, final int from, final int to) {
+        if (guarded == null || from == to) {
+            return;
+        }
+        int start = from;
+        if (to - from >= guarded.length - 1) {
+            guardedMatched = 0;
+            start = to - (guarded.length - 1);
+        }
+        for (int i = start; i < to; i++) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, folding.fold(cbuf[i]));
+        }
+    }
+
+    private void primeGuard(final CharSequence seq, final int from, final int to) {
+        if (guarded == null || from == to) {
+            return;
+        }
+        int start = from;
+        if (to - from >= guarded.length - 1) {
+            guardedMatched = 0;
+            start = to - (guarded.length - 1);
+        }
+        for (int i = start; i < to; i++) {
+            guardedMatched = advance(guarded, guardedFailure, guardedMatched, folding.fold(seq.charAt(i)));
+        }
     }
 
     private int decrement(int cursor, final int amount) {
@@ -182,4 +395,20 @@ public class CharSequenceLocator {
         }
         return cursor;
     }
+
+    /**
+     * Move the automaton for <code>pattern</code> on by one character.
+     */
+    private static int advance(final char[] pattern, final int[] failure, int state, final char c) {
+        if (state == pattern.length) {
+            state = failure[state - 1];
+        }
+        while (state > 0 && pattern[state] != c) {
+            state = failure[state - 1];
+        }
+        if (pattern[state] == c) {
+            state++;
+        }
+        return state;
+    }
 }
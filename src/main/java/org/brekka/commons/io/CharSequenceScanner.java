@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Reports where a character sequence occurs within a stream of characters, rather than replacing it. The offset of the
+ * first character of each match is passed to a {@link LongConsumer} (such as {@link LongArraySink}), and nothing else
+ * is copied. Matches are located exactly as they would be for replacement, so they never overlap.
+ * <p>
+ * Not thread safe, as the locator holds the state of the scan.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class CharSequenceScanner {
+    /**
+     * Default size of the buffer used to read from a reader.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Locates the sequence being searched for.
+     */
+    private final CharSequenceLocator locator;
+
+    /**
+     * Reused to read from readers, created on first use.
+     */
+    private char[] buffer;
+
+    /**
+     * @param locator
+     *            used to locate the sequence
+     */
+    public CharSequenceScanner(final CharSequenceLocator locator) {
+        Objects.requireNonNull(locator, "A locator must be specified");
+        this.locator = locator;
+    }
+
+    /**
+     * Scan all of the characters from a reader. The reader is not closed.
+     *
+     * @param reader
+     *            the characters to scan
+     * @param offsets
+     *            receives the offset (from the point at which the reader was passed) of each match
+     * @return the number of matches
+     * @throws IOException
+     *             if the reader fails
+     */
+    public long scan(final Reader reader, final LongConsumer offsets) throws IOException {
+        Objects.requireNonNull(reader, "A reader must be specified");
+        Objects.requireNonNull(offsets, "An offset consumer must be specified");
+        if (buffer == null) {
+            buffer = new char[DEFAULT_BUFFER_SIZE];
+        }
+        locator.clear();
+        long base = 0;
+        long count = 0;
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            int pos = 0;
+            int found;
+            while ((found = locator.find(buffer, pos, read - pos)) != -1) {
+                offsets.accept(base + found - locator.getCandidateLength());
+                locator.clear();
+                count++;
+                pos = found;
+            }
+            base += read;
+        }
+        return count;
+    }
+
+    /**
+     * Scan a sequence of characters, such as a {@link java.nio.CharBuffer} or {@link String}. Offsets are relative to
+     * the start of the sequence.
+     *
+     * @param seq
+     *            the characters to scan
+     * @param offsets
+     *            receives the offset of each match
+     * @return the number of matches
+     */
+    public long scan(final CharSequence seq, final LongConsumer offsets) {
+        Objects.requireNonNull(seq, "A sequence must be specified");
+        Objects.requireNonNull(offsets, "An offset consumer must be specified");
+        locator.clear();
+        long count = 0;
+        int pos = 0;
+        int end = seq.length();
+        int found;
+        while ((found = locator.find(seq, pos, end)) != -1) {
+            offsets.accept(found - locator.getCandidateLength());
+            locator.clear();
+            count++;
+            pos = found;
+        }
+        return count;
+    }
+}
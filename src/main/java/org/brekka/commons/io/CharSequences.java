@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Helpers for copying regions of a {@link CharSequence} without making intermediate copies.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+final class CharSequences {
+
+    private CharSequences() {
+    }
+
+    /**
+     * Write the characters of <code>seq</code> between <code>start</code> (inclusive) and <code>end</code> (exclusive)
+     * to the writer, using the most direct method available for the type of sequence.
+     *
+     * @param writer
+     *            the writer to write to
+     * @param seq
+     *            the source of the characters
+     * @param start
+     *            the index of the first character
+     * @param end
+     *            the index after the last character
+     * @throws IOException
+     *             if the writer fails
+     */
+    static void write(final Writer writer, final CharSequence seq, final int start, final int end) throws IOException {
+        if (seq instanceof String) {
+            writer.write((String) seq, start, end - start);
+        } else if (seq instanceof CharBuffer && ((CharBuffer) seq).hasArray()) {
+            CharBuffer buf = (CharBuffer) seq;
+            writer.write(buf.array(), buf.arrayOffset() + buf.position() + start, end - start);
+        } else {
+            writer.append(seq, start, end);
+        }
+    }
+
+    /**
+     * Copy the characters of <code>seq</code> between <code>start</code> (inclusive) and <code>end</code> (exclusive)
+     * into <code>dst</code>, in bulk where the type of sequence allows.
+     *
+     * @param seq
+     *            the source of the characters
+     * @param start
+     *            the index of the first character
+     * @param end
+     *            the index after the last character
+     * @param dst
+     *            the array to copy to
+     * @param dstBegin
+     *            where in <code>dst</code> to copy the first character to
+     */
+    static void getChars(final CharSequence seq, final int start, final int end, final char[] dst,
+            final int dstBegin) {
+        if (seq instanceof String) {
+            ((String) seq).getChars(start, end, dst, dstBegin);
+        } else if (seq instanceof StringBuilder) {
+            ((StringBuilder) seq).getChars(start, end, dst, dstBegin);
+        } else if (seq instanceof CharBuffer) {
+            CharBuffer buf = ((CharBuffer) seq).duplicate();
+            buf.position(buf.position() + start);
+            buf.get(dst, dstBegin, end - start);
+        } else {
+            for (int i = start, j = dstBegin; i < end; i++, j++) {
+                dst[j] = seq.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * Append the characters of <code>seq</code> between <code>start</code> (inclusive) and <code>end</code> (exclusive)
+     * to <code>sb</code>, in bulk where the type of sequence allows.
+     *
+     * @param sb
+     *            the builder to append to
+     * @param seq
+     *            the source of the characters
+     * @param start
+     *            the index of the first character
+     * @param end
+     *            the index after the last character
+     */
+    static void append(final StringBuilder sb, final CharSequence seq, final int start, final int end) {
+        if (end <= start) {
+            return;
+        }
+        if (seq instanceof CharBuffer && ((CharBuffer) seq).hasArray()) {
+            CharBuffer buf = (CharBuffer) seq;
+            sb.append(buf.array(), buf.arrayOffset() + buf.position() + start, end - start);
+        } else {
+            sb.append(seq, start, end);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A list of lines stored end to end in a single arena, with an index of where each line starts. While every character
+ * added fits into a single byte (Latin-1) the arena is a byte array, switching to a char array the first time one does
+ * not. Lines are returned as lightweight views onto the arena, a {@link String} is only created when
+ * {@link CharSequence#toString()} is called on one, so a large number of short lines costs little more than their
+ * characters.
+ * <p>
+ * Lines can only be added to the end of the list, they cannot be modified or removed. {@link #contains(Object)},
+ * {@link #indexOf(Object)} and {@link #lastIndexOf(Object)} compare by content, so can be given a {@link String} or
+ * any other {@link CharSequence}. A line itself is only equal to another line with the same content, as
+ * {@link String} equality cannot be made symmetric with it; use {@link CharSequence#toString()} to mix lines with
+ * strings in a set or map.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class CompactLineList extends AbstractList<CharSequence> implements RandomAccess {
+
+    /**
+     * Initial size of the arena.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The arena while every character is Latin-1, otherwise null.
+     */
+    private byte[] latin1 = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The arena once a character beyond Latin-1 has been added, otherwise null.
+     */
+    private char[] chars;
+
+    /**
+     * How much of the arena is in use.
+     */
+    private int used;
+
+    /**
+     * The position in the arena that each line starts at, with the entry after the last line marking its end.
+     */
+    private int[] offsets = new int[16];
+
+    /**
+     * The number of lines.
+     */
+    private int size;
+
+    /**
+     * Append a line to the end of the list. The characters are copied so <code>line</code> can be reused.
+     *
+     * @param line
+     *            the line to add
+     * @return true
+     */
+    @Override
+    public boolean add(final CharSequence line) {
+        Objects.requireNonNull(line, "The line must be specified");
+        int length = line.length();
+        ensureCapacity(length);
+        if (chars == null) {
+            byte[] arena = latin1;
+            int base = used;
+            for (int i = 0; i < length; i++) {
+                char c = line.charAt(i);
+                if (c > 0xFF) {
+                    inflate(base + i);
+                    CharSequences.getChars(line, i, length, chars, base + i);
+                    break;
+                }
+                arena[base + i] = (byte) c;
+            }
+        } else {
+            CharSequences.getChars(line, 0, length, chars, used);
+        }
+        used += length;
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        size++;
+        offsets[size] = used;
+        modCount++;
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractList#get(int)
+     */
+    @Override
+    public CharSequence get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Line(offsets[index], offsets[index + 1]);
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractList#indexOf(java.lang.Object)
+     */
+    @Override
+    public int indexOf(final Object o) {
+        if (!(o instanceof CharSequence)) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (contentEquals(offsets[i], offsets[i + 1], (CharSequence) o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractList#lastIndexOf(java.lang.Object)
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        if (!(o instanceof CharSequence)) {
+            return -1;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (contentEquals(offsets[i], offsets[i + 1], (CharSequence) o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractCollection#contains(java.lang.Object)
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractCollection#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * View the lines as strings, each of which is created as it is retrieved.
+     *
+     * @return the view
+     */
+    public List<String> asStrings() {
+        return new StringView();
+    }
+
+    /**
+     * Release any unused capacity.
+     */
+    public void trimToSize() {
+        if (chars != null) {
+            chars = Arrays.copyOf(chars, used);
+        } else {
+            latin1 = Arrays.copyOf(latin1, used);
+        }
+        offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    private void ensureCapacity(final int length) {
+        int required = used + length;
+        if (required < 0) {
+            throw new IllegalStateException("The lines exceed the maximum capacity");
+        }
+        int capacity = chars != null ? chars.length : latin1.length;
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1)));
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        if (chars != null) {
+            chars = Arrays.copyOf(chars, newCapacity);
+        } else {
+            latin1 = Arrays.copyOf(latin1, newCapacity);
+        }
+    }
+
+    /**
+     * Switch the arena over to chars, copying the first <code>count</code> bytes.
+     */
+    private void inflate(final int count) {
+        char[] inflated = new char[latin1.length];
+        for (int i = 0; i < count; i++) {
+            inflated[i] = (char) (latin1[i] & 0xFF);
+        }
+        chars = inflated;
+        latin1 = null;
+    }
+
+    private char charAt(final int pos) {
+        return chars != null ? chars[pos] : (char) (latin1[pos] & 0xFF);
+    }
+
+    /**
+     * Determine whether the region of the arena has the same content as <code>seq</code>.
+     */
+    private boolean contentEquals(final int start, final int end, final CharSequence seq) {
+        if (seq.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (seq.charAt(i - start) != charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String toString(final int start, final int end) {
+        if (chars != null) {
+            return new String(chars, start, end - start);
+        }
+        return new String(latin1, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * A region of the arena.
+     */
+    private final class Line implements CharSequence {
+        private final int start;
+
+        private final int end;
+
+        Line(final int start, final int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (end - start));
+            }
+            return CompactLineList.this.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(final int from, final int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("From: " + from + ", To: " + to + ", Length: " + (end - start));
+            }
+            return new Line(start + from, start + to);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + CompactLineList.this.charAt(i);
+            }
+            return h;
+        }
+
+        /**
+         * Equal to any line, from this or another list, with the same content. Not equal to other kinds of
+         * {@link CharSequence}, which would not return the favour.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Line)) {
+                return false;
+            }
+            return contentEquals(start, end, (Line) obj);
+        }
+
+        @Override
+        public String toString() {
+            return CompactLineList.this.toString(start, end);
+        }
+    }
+
+    /**
+     * Strings created on demand from the lines.
+     */
+    private final class StringView extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(final int index) {
+            return CompactLineList.this.get(index).toString();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * A precomputed lookup of the escape for each character that needs one, for use with {@link EscapingWriter}. The
+ * table is indexed directly by character, so only characters up to the highest one escaped take up space. It is
+ * immutable and may be shared between any number of writers/threads.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public final class EscapeTable {
+
+    /**
+     * Escapes the characters that are significant in HTML text and attribute values.
+     */
+    public static final EscapeTable HTML;
+
+    /**
+     * Escapes the characters that are significant in XML text and attribute values.
+     */
+    public static final EscapeTable XML;
+
+    /**
+     * Escapes the characters that cannot appear unescaped within a JSON string.
+     */
+    public static final EscapeTable JSON;
+
+    static {
+        Map<Character, String> markup = new HashMap<>();
+        markup.put('&', "&amp;");
+        markup.put('<', "&lt;");
+        markup.put('>', "&gt;");
+        markup.put('"', "&quot;");
+        markup.put('\'', "&#39;");
+        HTML = new EscapeTable(markup);
+        markup.put('\'', "&apos;");
+        XML = new EscapeTable(markup);
+
+        Map<Character, String> json = new HashMap<>();
+        for (char c = 0; c < 0x20; c++) {
+            json.put(c, String.format("\\u%04x", (int) c));
+        }
+        json.put('\b', "\\b");
+        json.put('\t', "\\t");
+        json.put('\n', "\\n");
+        json.put('\f', "\\f");
+        json.put('\r', "\\r");
+        json.put('"', "\\\"");
+        json.put('\\', "\\\\");
+        JSON = new EscapeTable(json);
+    }
+
+    /**
+     * The escape for each character, null for those that are written as they are.
+     */
+    private final char[][] escapes;
+
+    /**
+     * @param escapes
+     *            map of each character to escape to the string that should be written in its place.
+     */
+    public EscapeTable(final Map<Character, String> escapes) {
+        Objects.requireNonNull(escapes, "The escapes must be specified");
+        if (escapes.isEmpty()) {
+            throw new IllegalArgumentException("At least one escape must be specified");
+        }
+        int limit = 0;
+        for (Entry<Character, String> entry : escapes.entrySet()) {
+            Objects.requireNonNull(entry.getKey(), "The character to escape must be specified");
+            Objects.requireNonNull(entry.getValue(), "An escape must be specified");
+            limit = Math.max(limit, entry.getKey() + 1);
+        }
+        this.escapes = new char[limit][];
+        for (Entry<Character, String> entry : escapes.entrySet()) {
+            this.escapes[entry.getKey()] = entry.getValue().toCharArray();
+        }
+    }
+
+    /**
+     * Escape the whole of <code>seq</code> in memory.
+     *
+     * @param seq
+     *            the characters to escape
+     * @return the escaped characters, or just <code>seq</code> as a string if none needed escaping.
+     */
+    public String escape(final CharSequence seq) {
+        int len = seq.length();
+        int i = next(seq, 0, len);
+        if (i == len) {
+            return seq.toString();
+        }
+        StringBuilder sb = new StringBuilder(len + 16);
+        int runStart = 0;
+        while (i < len) {
+            CharSequences.append(sb, seq, runStart, i);
+            sb.append(escapes[seq.charAt(i)]);
+            runStart = ++i;
+            i = next(seq, i, len);
+        }
+        CharSequences.append(sb, seq, runStart, len);
+        return sb.toString();
+    }
+
+    /**
+     * @param c
+     *            the character to check
+     * @return the escape for <code>c</code>, or null if it is written as it is.
+     */
+    char[] escapeOf(final char c) {
+        return c < escapes.length ? escapes[c] : null;
+    }
+
+    /**
+     * Find the next character from <code>from</code> that needs escaping.
+     *
+     * @return the index of the character, or <code>end</code> if there is none.
+     */
+    int next(final char[] cbuf, final int from, final int end) {
+        char[][] table = escapes;
+        int limit = table.length;
+        int i = from;
+        while (i < end) {
+            char c = cbuf[i];
+            if (c < limit && table[c] != null) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * As {@link #next(char[], int, int)} but for any {@link CharSequence}.
+     */
+    int next(final CharSequence seq, final int from, final int end) {
+        char[][] table = escapes;
+        int limit = table.length;
+        int i = from;
+        while (i < end) {
+            char c = seq.charAt(i);
+            if (c < limit && table[c] != null) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+}
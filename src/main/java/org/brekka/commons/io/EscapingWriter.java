@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Escapes characters on their way to the underlying writer, in a single pass using the lookup of an
+ * {@link EscapeTable}. Every character is handled independently, so nothing is ever held back between writes. Runs of
+ * characters that do not need escaping are passed to the underlying writer in bulk, straight from the caller's array
+ * or sequence.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class EscapingWriter extends Writer {
+
+    /**
+     * The writer to output the escaped character stream to.
+     */
+    private final Writer writer;
+
+    /**
+     * The escape for each character.
+     */
+    private final EscapeTable table;
+
+    /**
+     * @param writer
+     *            the destination for the escaped character data.
+     * @param table
+     *            the escape for each character, such as {@link EscapeTable#HTML}.
+     */
+    public EscapingWriter(final Writer writer, final EscapeTable table) {
+        Objects.requireNonNull(writer, "A writer must be specified");
+        Objects.requireNonNull(table, "An escape table must be specified");
+        this.writer = writer;
+        this.table = table;
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        char[] escape = table.escapeOf((char) c);
+        if (escape != null) {
+            writer.write(escape, 0, escape.length);
+        } else {
+            writer.write(c);
+        }
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        int end = off + len;
+        int runStart = off;
+        int i = table.next(cbuf, off, end);
+        while (i < end) {
+            if (i > runStart) {
+                writer.write(cbuf, runStart, i - runStart);
+            }
+            char[] escape = table.escapeOf(cbuf[i]);
+            writer.write(escape, 0, escape.length);
+            runStart = ++i;
+            i = table.next(cbuf, i, end);
+        }
+        if (end > runStart) {
+            writer.write(cbuf, runStart, end - runStart);
+        }
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        process(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        CharSequence seq = csq != null ? csq : "null";
+        process(seq, 0, seq.length());
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        process(csq != null ? csq : "null", start, end);
+        return this;
+    }
+
+    @Override
+    public Writer append(final char c) throws IOException {
+        write(c);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void process(final CharSequence seq, final int start, final int end) throws IOException {
+        int runStart = start;
+        int i = table.next(seq, start, end);
+        while (i < end) {
+            if (i > runStart) {
+                CharSequences.write(writer, seq, runStart, i);
+            }
+            char[] escape = table.escapeOf(seq.charAt(i));
+            writer.write(escape, 0, escape.length);
+            runStart = ++i;
+            i = table.next(seq, i, end);
+        }
+        if (end > runStart) {
+            CharSequences.write(writer, seq, runStart, end);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * The byte level counterpart to {@link IterableStringReader}, which encodes each string followed by the line separator
+ * straight to bytes. This avoids the extra layer of buffering that comes from wrapping the reader in an encoder when
+ * the lines are destined for a byte stream anyway.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class IterableStringInputStream extends InputStream {
+
+    /**
+     * Size of the buffer that lines are encoded into.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Reads of at least this many bytes are encoded straight into the caller's array.
+     */
+    private static final int DIRECT_THRESHOLD = 64;
+
+    /**
+     * Encodes the lines.
+     */
+    private final LineEncoder encoder;
+
+    /**
+     * Encoded bytes that have yet to be read.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Closed when this stream is closed, may be null.
+     */
+    private final AutoCloseable resource;
+
+    /**
+     * Tracks when every line has been encoded.
+     */
+    private boolean endOfStream = false;
+
+    /**
+     * @param source
+     *            the strings to read
+     * @param charset
+     *            the charset to encode the strings with
+     */
+    public IterableStringInputStream(final Iterable<? extends CharSequence> source, final Charset charset) {
+        this(source, charset, IterableStringReader.DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * @param source
+     *            the strings to read
+     * @param charset
+     *            the charset to encode the strings with
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringInputStream(final Iterable<? extends CharSequence> source, final Charset charset,
+            final String lineSeparator) {
+        this(Objects.requireNonNull(source, "A source must be specified").iterator(), charset, lineSeparator, null);
+    }
+
+    /**
+     * @param source
+     *            the strings to read, which will be pulled only as they are needed.
+     * @param charset
+     *            the charset to encode the strings with
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringInputStream(final Iterator<? extends CharSequence> source, final Charset charset,
+            final String lineSeparator) {
+        this(source, charset, lineSeparator, null);
+    }
+
+    /**
+     * @param source
+     *            the strings to read, which will be pulled only as they are needed. The stream will be closed when
+     *            this input stream is closed.
+     * @param charset
+     *            the charset to encode the strings with
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringInputStream(final Stream<? extends CharSequence> source, final Charset charset,
+            final String lineSeparator) {
+        this(Objects.requireNonNull(source, "A source must be specified").iterator(), charset, lineSeparator, source);
+    }
+
+    private IterableStringInputStream(final Iterator<? extends CharSequence> iter, final Charset charset,
+            final String lineSeparator, final AutoCloseable resource) {
+        this.encoder = new LineEncoder(charset, lineSeparator);
+        this.encoder.start(iter);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+        this.resource = resource;
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.InputStream#read()
+     */
+    @Override
+    public int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.InputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            if (len >= DIRECT_THRESHOLD) {
+                // Nothing buffered, so skip the copy and encode straight into the caller's array
+                if (endOfStream) {
+                    return -1;
+                }
+                ByteBuffer target = ByteBuffer.wrap(b, off, len);
+                endOfStream = !encoder.encode(target);
+                int count = target.position() - off;
+                return count == 0 ? -1 : count;
+            }
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int count = Math.min(buffer.remaining(), len);
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.InputStream#available()
+     */
+    @Override
+    public int available() throws IOException {
+        return buffer.remaining();
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.InputStream#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Encode the next block of bytes into the buffer.
+     *
+     * @return false if there is nothing more to read.
+     */
+    private boolean fill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        buffer.clear();
+        endOfStream = !encoder.encode(buffer);
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+}
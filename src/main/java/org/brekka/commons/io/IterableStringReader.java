@@ -18,67 +18,150 @@ package org.brekka.commons.io;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.text.CharacterIterator;
-import java.text.StringCharacterIterator;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
 
 /**
- * Read strings from a list, applying newline at the end of each string.
+ * Read strings from a list, applying newline at the end of each string. The source can be any {@link Iterable},
+ * {@link Iterator}, {@link Spliterator} or {@link Stream} of {@link CharSequence}s, which are pulled lazily as they
+ * are needed, and the line separator can be changed (or omitted altogether). Characters are copied in bulk where
+ * possible.
  *
  * @author Andrew Taylor (andrew@brekka.org)
  */
 public class IterableStringReader extends Reader {
-    
+
+    /**
+     * The separator applied when none is specified.
+     */
+    public static final String DEFAULT_LINE_SEPARATOR = "\n";
+
     /**
      * The iterator of strings
      */
-    private Iterator<String> iter;
-    
+    private final Iterator<? extends CharSequence> iter;
+
+    /**
+     * Appended after each string.
+     */
+    private final String lineSeparator;
+
+    /**
+     * Closed when this reader is closed, may be null.
+     */
+    private final AutoCloseable resource;
+
+    /**
+     * Current string, null when the next one needs to be obtained.
+     */
+    private CharSequence current;
+
     /**
-     * Current string iterator
+     * Position within the current string, continuing into the separator beyond its end.
      */
-    private CharacterIterator current;
-    
+    private int cursor;
+
     /**
-     * 
+     * @param source
+     *            the strings to read
      */
-    public IterableStringReader(Iterable<String> source) {
-        this.iter = source.iterator();
+    public IterableStringReader(final Iterable<? extends CharSequence> source) {
+        this(source, DEFAULT_LINE_SEPARATOR);
     }
-    
+
+    /**
+     * @param source
+     *            the strings to read
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringReader(final Iterable<? extends CharSequence> source, final String lineSeparator) {
+        this(Objects.requireNonNull(source, "A source must be specified").iterator(), lineSeparator, null);
+    }
+
+    /**
+     * @param source
+     *            the strings to read, which will be pulled only as they are needed.
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringReader(final Iterator<? extends CharSequence> source, final String lineSeparator) {
+        this(source, lineSeparator, null);
+    }
+
+    /**
+     * @param source
+     *            the strings to read, which will be pulled only as they are needed.
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringReader(final Spliterator<? extends CharSequence> source, final String lineSeparator) {
+        this(Spliterators.iterator(Objects.requireNonNull(source, "A source must be specified")), lineSeparator, null);
+    }
+
+    /**
+     * @param source
+     *            the strings to read, which will be pulled only as they are needed. The stream will be closed when
+     *            this reader is closed.
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     */
+    public IterableStringReader(final Stream<? extends CharSequence> source, final String lineSeparator) {
+        this(Objects.requireNonNull(source, "A source must be specified").iterator(), lineSeparator, source);
+    }
+
+    private IterableStringReader(final Iterator<? extends CharSequence> iter, final String lineSeparator,
+            final AutoCloseable resource) {
+        Objects.requireNonNull(iter, "A source must be specified");
+        Objects.requireNonNull(lineSeparator, "A line separator must be specified");
+        this.iter = iter;
+        this.lineSeparator = lineSeparator;
+        this.resource = resource;
+    }
+
     /* (non-Javadoc)
      * @see java.io.Reader#read(char[], int, int)
      */
     @Override
-    public int read(char[] cbuf, int off, int len) throws IOException {
-        if (!iter.hasNext()) {
-            // No more strings
-            return -1;
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
         }
-        if (current == null) {
-            current = new StringCharacterIterator(iter.next());
-        }
-        int count = 0;
-        boolean done = false;
-        for (int i = off; i < off + len && !done; i++) {
-            char c = current.current();
-            if (c == CharacterIterator.DONE) {
-                // We are not handling windows
-                c = '\n';
-                if (iter.hasNext()) {
-                    // Move to the next line
-                    current = new StringCharacterIterator(iter.next());
-                } else {
-                    done = true;
+        int pos = off;
+        int end = off + len;
+        while (pos < end) {
+            if (current == null) {
+                if (!iter.hasNext()) {
+                    break;
                 }
+                current = iter.next();
+                cursor = 0;
+            }
+            int length = current.length();
+            int count;
+            if (cursor < length) {
+                count = Math.min(length - cursor, end - pos);
+                CharSequences.getChars(current, cursor, cursor + count, cbuf, pos);
+            } else if (cursor - length < lineSeparator.length()) {
+                int sepPos = cursor - length;
+                count = Math.min(lineSeparator.length() - sepPos, end - pos);
+                lineSeparator.getChars(sepPos, sepPos + count, cbuf, pos);
             } else {
-                current.next();
+                // Move to the next line
+                current = null;
+                continue;
             }
-            cbuf[i] = c;
-            count++;
+            pos += count;
+            cursor += count;
         }
-        
-        return count;
+        if (pos == off) {
+            // No more strings
+            return -1;
+        }
+        return pos - off;
     }
 
     /* (non-Javadoc)
@@ -86,6 +169,14 @@ public class IterableStringReader extends Reader {
      */
     @Override
     public void close() throws IOException {
-        // Not required
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
     }
-}
\ No newline at end of file
+}
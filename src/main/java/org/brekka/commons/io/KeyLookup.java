@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Read-only view of a {@link Map} with {@link String} keys that can be looked up by any {@link CharSequence} with the
+ * same content, avoiding the need to create a {@link String} for each lookup. Implemented as an open addressing hash
+ * table using the {@link String#hashCode()} algorithm.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+class KeyLookup implements Function<CharSequence, CharSequence> {
+
+    private final String[] keys;
+
+    private final CharSequence[] values;
+
+    private final int mask;
+
+    KeyLookup(final Map<String, ? extends CharSequence> map) {
+        Objects.requireNonNull(map, "A map must be specified");
+        int capacity = Integer.highestOneBit(Math.max(map.size(), 1) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new CharSequence[capacity];
+        this.mask = capacity - 1;
+        for (Entry<String, ? extends CharSequence> entry : map.entrySet()) {
+            String key = entry.getKey();
+            int slot = key.hashCode() & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = entry.getValue();
+        }
+    }
+
+    @Override
+    public CharSequence apply(final CharSequence key) {
+        int slot = hash(key) & mask;
+        String candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (candidate.contentEquals(key)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(final CharSequence seq) {
+        if (seq instanceof String) {
+            return seq.hashCode();
+        }
+        int h = 0;
+        for (int i = 0; i < seq.length(); i++) {
+            h = 31 * h + seq.charAt(i);
+        }
+        return h;
+    }
+}
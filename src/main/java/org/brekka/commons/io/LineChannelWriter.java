@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Write strings to a {@link WritableByteChannel}, each followed by a line separator. The strings are encoded straight
+ * into a reusable direct {@link ByteBuffer} which is written to the channel each time it fills.
+ * <p>
+ * Instances can be reused for any number of writes, but only by one thread at a time.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class LineChannelWriter {
+    /**
+     * Default size of the buffer the strings are encoded into.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Encodes the lines.
+     */
+    private final LineEncoder encoder;
+
+    /**
+     * Direct buffer the lines are encoded into.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * @param charset
+     *            the charset to encode the strings with
+     */
+    public LineChannelWriter(final Charset charset) {
+        this(charset, IterableStringReader.DEFAULT_LINE_SEPARATOR, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param charset
+     *            the charset to encode the strings with
+     * @param lineSeparator
+     *            appended after each string, may be empty.
+     * @param bufferSize
+     *            the size of the direct buffer the strings are encoded into.
+     */
+    public LineChannelWriter(final Charset charset, final String lineSeparator, final int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size must be at least 64 bytes");
+        }
+        this.encoder = new LineEncoder(charset, lineSeparator);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Write all of <code>lines</code> to <code>target</code>, which is not closed.
+     *
+     * @param lines
+     *            the strings to write
+     * @param target
+     *            the channel to write to
+     * @return the number of bytes written
+     * @throws IOException
+     *             if the channel fails
+     */
+    public long write(final Iterable<? extends CharSequence> lines, final WritableByteChannel target)
+            throws IOException {
+        Objects.requireNonNull(lines, "Lines must be specified");
+        return write(lines.iterator(), target);
+    }
+
+    /**
+     * Write all of the remaining <code>lines</code> to <code>target</code>, which is not closed.
+     *
+     * @param lines
+     *            the strings to write, which will be pulled only as they are needed.
+     * @param target
+     *            the channel to write to
+     * @return the number of bytes written
+     * @throws IOException
+     *             if the channel fails
+     */
+    public long write(final Iterator<? extends CharSequence> lines, final WritableByteChannel target)
+            throws IOException {
+        Objects.requireNonNull(target, "A target channel must be specified");
+        encoder.start(lines);
+        long written = 0;
+        boolean more;
+        do {
+            buffer.clear();
+            more = encoder.encode(buffer);
+            buffer.flip();
+            written += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        } while (more);
+        return written;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Encodes a sequence of lines, each followed by a separator, into as many {@link ByteBuffer}s as it takes. Where the
+ * charset encodes the ASCII (or Latin-1) range as the same byte values, runs of such characters are copied straight
+ * across and only the remaining characters are passed through the {@link CharsetEncoder}. The encoder sees the whole
+ * sequence as a single input, so a byte order mark or similar is written only once. Unmappable and malformed
+ * characters are replaced, as {@link java.io.OutputStreamWriter} does.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+final class LineEncoder {
+
+    /**
+     * How many characters are copied out of a line at a time for the fast path.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Used for any characters beyond <code>fastLimit</code>.
+     */
+    private final CharsetEncoder encoder;
+
+    /**
+     * The highest character that the charset encodes as the single byte of the same value, or -1 if there is no such
+     * range.
+     */
+    private final int fastLimit;
+
+    /**
+     * Encoded after each line.
+     */
+    private final String lineSeparator;
+
+    /**
+     * Characters copied out of the current segment for the fast path.
+     */
+    private final char[] chars = new char[CHUNK_SIZE];
+
+    /**
+     * Bytes for the fast path when the target buffer has no accessible array.
+     */
+    private final byte[] bytes = new byte[CHUNK_SIZE];
+
+    /**
+     * The lines to encode.
+     */
+    private Iterator<? extends CharSequence> lines;
+
+    /**
+     * The line or separator being encoded, null before the first.
+     */
+    private CharSequence segment;
+
+    /**
+     * Position within <code>segment</code> of the next character to encode.
+     */
+    private int pos;
+
+    /**
+     * Whether the separator is still to be encoded for the current line.
+     */
+    private boolean separatorNext;
+
+    /**
+     * Characters that are being passed through the encoder, null if there are none.
+     */
+    private CharBuffer slow;
+
+    /**
+     * Whether all of <code>slow</code> has been encoded and the encoder is being flushed.
+     */
+    private boolean flushing;
+
+    /**
+     * Whether the lines are used up, <code>slow</code> then being the last input to the encoder.
+     */
+    private boolean ending;
+
+    /**
+     * Whether the encoder has been flushed at the end of the lines.
+     */
+    private boolean finished;
+
+    /**
+     * A high surrogate left at the end of the previous slow run, to be encoded along with the next character.
+     */
+    private char carry;
+
+    /**
+     * Whether <code>carry</code> holds a character.
+     */
+    private boolean carrying;
+
+    /**
+     * @param charset
+     *            the charset to encode to
+     * @param lineSeparator
+     *            encoded after each line, may be empty
+     */
+    LineEncoder(final Charset charset, final String lineSeparator) {
+        Objects.requireNonNull(charset, "A charset must be specified");
+        Objects.requireNonNull(lineSeparator, "A line separator must be specified");
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.fastLimit = fastLimitOf(charset);
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * Start encoding a new sequence of lines, abandoning anything left of the previous one.
+     *
+     * @param lines
+     *            the lines to encode
+     */
+    void start(final Iterator<? extends CharSequence> lines) {
+        this.lines = Objects.requireNonNull(lines, "A source must be specified");
+        this.segment = null;
+        this.pos = 0;
+        this.separatorNext = false;
+        this.slow = null;
+        this.flushing = false;
+        this.ending = false;
+        this.finished = false;
+        this.carrying = false;
+        this.encoder.reset();
+    }
+
+    /**
+     * Encode as much as will fit into <code>out</code>.
+     *
+     * @param out
+     *            the buffer to encode to
+     * @return false if every line has now been encoded, true if <code>out</code> filled up first.
+     * @throws CharacterCodingException
+     *             if the encoder fails
+     */
+    boolean encode(final ByteBuffer out) throws CharacterCodingException {
+        while (out.hasRemaining()) {
+            if (slow != null) {
+                if (!encodeSlow(out)) {
+                    return true;
+                }
+                continue;
+            }
+            if (finished) {
+                return false;
+            }
+            if (segment == null || pos == segment.length()) {
+                if (!nextSegment()) {
+                    // Let the encoder know the input is complete, along with any surrogate still held back
+                    ending = true;
+                    slow = carrying ? CharBuffer.wrap(new char[] { carry }) : CharBuffer.allocate(0);
+                    carrying = false;
+                }
+                continue;
+            }
+            int end = segment.length();
+            if (fastLimit >= 0 && !carrying) {
+                pos = encodeFast(out, pos, end);
+            }
+            if (pos < end && out.hasRemaining()) {
+                // Hand everything up to the next character that can take the fast path to the encoder.
+                int runEnd = fastLimit < 0 ? end : pos + 1;
+                while (runEnd < end && segment.charAt(runEnd) > fastLimit) {
+                    runEnd++;
+                }
+                if (carrying) {
+                    slow = CharBuffer.allocate(runEnd - pos + 1);
+                    slow.put(carry).append(segment, pos, runEnd).flip();
+                    carrying = false;
+                } else {
+                    slow = CharBuffer.wrap(segment, pos, runEnd);
+                }
+                pos = runEnd;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextSegment() {
+        if (separatorNext) {
+            segment = lineSeparator;
+            separatorNext = false;
+        } else if (lines != null && lines.hasNext()) {
+            segment = Objects.requireNonNull(lines.next(), "Lines cannot be null");
+            separatorNext = !lineSeparator.isEmpty();
+        } else {
+            return false;
+        }
+        pos = 0;
+        return true;
+    }
+
+    /**
+     * Copy characters up to <code>fastLimit</code> directly as bytes, stopping at the first that is beyond it.
+     *
+     * @return the position of the first character not copied
+     */
+    private int encodeFast(final ByteBuffer out, final int from, final int end) {
+        int i = from;
+        while (i < end && out.hasRemaining()) {
+            int count = Math.min(Math.min(end - i, out.remaining()), CHUNK_SIZE);
+            CharSequences.getChars(segment, i, i + count, chars, 0);
+            int copied = 0;
+            if (out.hasArray()) {
+                byte[] arr = out.array();
+                int base = out.arrayOffset() + out.position();
+                while (copied < count && chars[copied] <= fastLimit) {
+                    arr[base + copied] = (byte) chars[copied];
+                    copied++;
+                }
+                out.position(out.position() + copied);
+            } else {
+                while (copied < count && chars[copied] <= fastLimit) {
+                    bytes[copied] = (byte) chars[copied];
+                    copied++;
+                }
+                out.put(bytes, 0, copied);
+            }
+            i += copied;
+            if (copied < count) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Continue passing <code>slow</code> through the encoder, flushing it once the end of the lines is reached.
+     *
+     * @return true if it has been completely encoded, false if <code>out</code> filled up first.
+     */
+    private boolean encodeSlow(final ByteBuffer out) throws CharacterCodingException {
+        CoderResult result;
+        if (!flushing) {
+            result = encoder.encode(slow, out, ending);
+            if (result.isOverflow()) {
+                return false;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (!ending) {
+                if (slow.hasRemaining()) {
+                    // A high surrogate whose pair is yet to come
+                    carry = slow.get();
+                    carrying = true;
+                }
+                slow = null;
+                return true;
+            }
+            flushing = true;
+        }
+        result = encoder.flush(out);
+        if (result.isOverflow()) {
+            return false;
+        }
+        slow = null;
+        flushing = false;
+        finished = true;
+        return true;
+    }
+
+    /**
+     * Determine the extent of the range of characters that <code>charset</code> encodes as the single byte of the same
+     * value.
+     */
+    private static int fastLimitOf(final Charset charset) {
+        if (!isStateless(charset)) {
+            return -1;
+        }
+        if (encodesAsIs(charset, 0xFF)) {
+            return 0xFF;
+        }
+        if (encodesAsIs(charset, 0x7F)) {
+            return 0x7F;
+        }
+        return -1;
+    }
+
+    /**
+     * Bytes copied across by the fast path are only valid if an ASCII character still encodes as just its own byte
+     * after other characters have been through the encoder, which is not the case for shift based charsets such as
+     * ISO-2022-JP.
+     */
+    private static boolean isStateless(final Charset charset) {
+        CharsetEncoder probe = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer out = ByteBuffer.allocate(64);
+        if (probe.encode(CharBuffer.wrap("\u00e9\u3042"), out, false).isError()) {
+            return false;
+        }
+        int before = out.position();
+        if (probe.encode(CharBuffer.wrap("a"), out, false).isError()) {
+            return false;
+        }
+        return out.position() == before + 1 && out.get(before) == 'a';
+    }
+
+    private static boolean encodesAsIs(final Charset charset, final int limit) {
+        char[] range = new char[limit + 1];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = (char) i;
+        }
+        ByteBuffer encoded;
+        try {
+            encoded = charset.newEncoder().encode(CharBuffer.wrap(range));
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+        if (encoded.remaining() != range.length) {
+            return false;
+        }
+        for (int i = 0; i < range.length; i++) {
+            if (encoded.get(i) != (byte) i) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
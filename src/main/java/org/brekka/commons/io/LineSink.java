@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where {@link StringListWriter} sends each line once it is complete.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+interface LineSink {
+
+    /**
+     * Accept a completed line. The sequence is reused by the writer so is only valid for the duration of the call.
+     *
+     * @param line
+     *            the line, without its terminator
+     * @throws IOException
+     *             if the line cannot be accepted
+     */
+    void line(CharSequence line) throws IOException;
+
+    /**
+     * No further lines will be sent.
+     *
+     * @throws IOException
+     *             if the sink fails to complete
+     */
+    void close() throws IOException;
+
+    /**
+     * The lines that have been accepted, if the sink retains them.
+     *
+     * @return the lines, or null if they are not retained.
+     */
+    List<? extends CharSequence> lines();
+}
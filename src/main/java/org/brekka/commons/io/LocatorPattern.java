@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.util.Objects;
+
+/**
+ * The compiled form of the sequence a {@link CharSequenceLocator} searches for. Immutable, so can be shared by any
+ * number of locators on any number of threads.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+final class LocatorPattern {
+    /**
+     * The character sequence to locate, already folded.
+     */
+    final char[] toLocate;
+
+    /**
+     * How characters are folded before comparison.
+     */
+    final CaseFolding folding;
+
+    /**
+     * Failure function for <code>toLocate</code>, the length of the longest proper prefix that is also a suffix of
+     * each prefix.
+     */
+    final int[] failure;
+
+    /**
+     * The <code>mustNotFollow</code> sequence followed by <code>toLocate</code>, already folded. Null when there is no
+     * such sequence.
+     */
+    final char[] guarded;
+
+    /**
+     * Failure function for <code>guarded</code>.
+     */
+    final int[] guardedFailure;
+
+    /**
+     * Whether runs of characters that cannot start a match can be skipped by looking only for
+     * <code>first</code> and <code>firstAlt</code>. Not possible for Unicode folding, where too many characters can
+     * fold to the same one.
+     */
+    final boolean skippable;
+
+    /**
+     * The first character of <code>toLocate</code>.
+     */
+    final char first;
+
+    /**
+     * The other character that folds to <code>first</code>, or <code>first</code> again if there is none.
+     */
+    final char firstAlt;
+
+    /**
+     * @param toLocate
+     *            the character sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     * @param folding
+     *            how characters are folded before comparison, applies to both sequences.
+     */
+    LocatorPattern(final String toLocate, final String mustNotFollow, final CaseFolding folding) {
+        Objects.requireNonNull(toLocate, "The string to locate must be specified");
+        Objects.requireNonNull(folding, "The case folding must be specified");
+        if (toLocate.isEmpty()) {
+            throw new IllegalArgumentException("The string to locate cannot be empty");
+        }
+        this.folding = folding;
+        this.toLocate = folding.fold(toLocate.toCharArray());
+        this.failure = failureOf(this.toLocate);
+        if (mustNotFollow != null && !mustNotFollow.isEmpty()) {
+            this.guarded = folding.fold((mustNotFollow + toLocate).toCharArray());
+            this.guardedFailure = failureOf(this.guarded);
+        } else {
+            this.guarded = null;
+            this.guardedFailure = null;
+        }
+        this.skippable = folding != CaseFolding.UNICODE;
+        this.first = this.toLocate[0];
+        if (folding == CaseFolding.ASCII && first >= 'a' && first <= 'z') {
+            this.firstAlt = (char) (first - ('a' - 'A'));
+        } else {
+            this.firstAlt = first;
+        }
+    }
+
+    /**
+     * Build the Knuth-Morris-Pratt failure function for <code>pattern</code>.
+     */
+    private static int[] failureOf(final char[] pattern) {
+        int[] failure = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Growable array of primitive longs, suitable for collecting match offsets from {@link CharSequenceScanner} or
+ * {@link ByteSequenceScanner} without boxing.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class LongArraySink implements LongConsumer {
+
+    private long[] values;
+
+    private int size;
+
+    public LongArraySink() {
+        this(16);
+    }
+
+    /**
+     * @param initialCapacity
+     *            the number of values that can be held before the array needs to grow.
+     */
+    public LongArraySink(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative");
+        }
+        this.values = new long[initialCapacity];
+    }
+
+    @Override
+    public void accept(final long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(16, size * 2));
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @param index
+     *            the index of the value
+     * @return the value at <code>index</code>
+     */
+    public long get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * @return the number of values collected
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the values collected
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Remove all values, retaining the capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * Stream based replacement of every string in a {@link ReplacementDictionary} as a {@link Reader}. All of the strings
+ * are located in a single pass, regardless of how many there are.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class MultiStringReplacingReader extends Reader {
+
+    /**
+     * Default size of the buffer used to read from the underlying reader.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The reader to obtain the character data from
+     */
+    private final Reader reader;
+
+    /**
+     * The strings to locate and their replacements.
+     */
+    private final ReplacementDictionary dictionary;
+
+    /**
+     * Characters read from the underlying reader.
+     */
+    private final char[] buffer;
+
+    /**
+     * Current state of the dictionary automaton.
+     */
+    private int state = ReplacementDictionary.ROOT;
+
+    /**
+     * Position of the next character in the buffer to be passed on to the caller.
+     */
+    private int emitPos;
+
+    /**
+     * Position of the next character in the buffer to be checked for matches.
+     */
+    private int scanPos;
+
+    /**
+     * The end of the characters available in the buffer.
+     */
+    private int limit;
+
+    /**
+     * Where in the buffer the match that has just been located starts, or -1 if there is none.
+     */
+    private int matchStart = -1;
+
+    /**
+     * Replacement characters waiting to be written (in the event that they won't fit into the current character
+     * buffer).
+     */
+    private char[] pending;
+
+    /**
+     * Position within <code>pending</code> of the next character to write.
+     */
+    private int pendingPos;
+
+    /**
+     * Tracks when the end of stream is reached.
+     */
+    private boolean endOfStream = false;
+
+    /**
+     * Updated with the work done, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
+    /**
+     * @param reader
+     *            the source of character data that will be filtered for replacement.
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     */
+    public MultiStringReplacingReader(final Reader reader, final ReplacementDictionary dictionary) {
+        this(reader, dictionary, null);
+    }
+
+    /**
+     * @param reader
+     *            the source of character data that will be filtered for replacement.
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     * @param statistics
+     *            if not null, updated with the work done by this reader.
+     */
+    public MultiStringReplacingReader(final Reader reader, final ReplacementDictionary dictionary,
+            final ReplacementStatistics statistics) {
+        Objects.requireNonNull(reader, "A reader must be specified");
+        Objects.requireNonNull(dictionary, "A dictionary must be specified");
+        this.reader = reader;
+        this.dictionary = dictionary;
+        this.buffer = new char[Math.max(DEFAULT_BUFFER_SIZE, dictionary.getMaxLength() * 2)];
+        this.statistics = statistics;
+    }
+
+    /**
+     * Read directly into a {@link CharBuffer}. Runs of characters that are not part of a match are copied in bulk.
+     */
+    @Override
+    public int read(final CharBuffer target) throws IOException {
+        int remaining = target.remaining();
+        while (target.hasRemaining()) {
+            if (pending != null) {
+                int count = Math.min(pending.length - pendingPos, target.remaining());
+                target.put(pending, pendingPos, count);
+                pendingPos += count;
+                if (pendingPos == pending.length) {
+                    pending = null;
+                }
+                continue;
+            }
+            int committed = matchStart >= 0 ? matchStart : scanPos - dictionary.depthOf(state);
+            if (emitPos < committed) {
+                int count = Math.min(committed - emitPos, target.remaining());
+                target.put(buffer, emitPos, count);
+                emitPos += count;
+            } else if (matchStart >= 0) {
+                // Everything before the match has been written, now for the replacement
+                pending = dictionary.replacementOf(dictionary.matchOf(state));
+                pendingPos = 0;
+                state = ReplacementDictionary.ROOT;
+                emitPos = scanPos;
+                matchStart = -1;
+            } else if (scanPos < limit) {
+                scan();
+            } else if (endOfStream) {
+                if (emitPos < scanPos) {
+                    // Anything still held can no longer be part of a match
+                    state = ReplacementDictionary.ROOT;
+                    continue;
+                }
+                if (remaining != target.remaining()) {
+                    // Some data has been added during this invocation, need to return that count.
+                    break;
+                }
+                return -1;
+            } else if (remaining != target.remaining()) {
+                // Avoid blocking on the underlying reader when there is already something to return.
+                break;
+            } else {
+                fill();
+            }
+        }
+        return remaining - target.remaining();
+    }
+
+    /**
+     * Less efficient read method that allocates a new CharBuffer on each call.
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        return read(CharBuffer.wrap(cbuf, off, len));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Advance through the buffer until either a match is located or all available characters have been checked.
+     */
+    private void scan() {
+        long started = statistics != null ? System.nanoTime() : 0L;
+        int s = state;
+        int pos = scanPos;
+        int match = ReplacementDictionary.NO_MATCH;
+        while (pos < limit) {
+            s = dictionary.next(s, buffer[pos++]);
+            match = dictionary.matchOf(s);
+            if (match != ReplacementDictionary.NO_MATCH) {
+                matchStart = pos - dictionary.lengthOf(match);
+                break;
+            }
+        }
+        if (statistics != null) {
+            boolean found = match != ReplacementDictionary.NO_MATCH;
+            statistics.record(pos - scanPos, found ? 1 : 0,
+                    found ? dictionary.replacementOf(match).length - dictionary.lengthOf(match) : 0,
+                    System.nanoTime() - started);
+        }
+        state = s;
+        scanPos = pos;
+    }
+
+    /**
+     * Move any characters that are still held to the start of the buffer, then fill the rest from the underlying
+     * reader.
+     */
+    private void fill() throws IOException {
+        int held = limit - emitPos;
+        if (emitPos > 0) {
+            System.arraycopy(buffer, emitPos, buffer, 0, held);
+            scanPos -= emitPos;
+            emitPos = 0;
+            limit = held;
+        }
+        int count = reader.read(buffer, limit, buffer.length - limit);
+        if (count == -1) {
+            endOfStream = true;
+        } else {
+            limit += count;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Stream based replacement of every string in a {@link ReplacementDictionary} as a {@link Writer}. All of the strings
+ * are located in a single pass, regardless of how many there are. Runs of characters that cannot be part of a match are
+ * passed to the underlying writer in bulk.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class MultiStringReplacingWriter extends Writer {
+
+    /**
+     * The writer to output the resulting character stream to.
+     */
+    private final Writer writer;
+
+    /**
+     * The strings to locate and their replacements.
+     */
+    private final ReplacementDictionary dictionary;
+
+    /**
+     * Current state of the dictionary automaton. The characters it holds have not yet been written.
+     */
+    private int state = ReplacementDictionary.ROOT;
+
+    /**
+     * Updated with the work done, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
+    /**
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     */
+    public MultiStringReplacingWriter(final Writer writer, final ReplacementDictionary dictionary) {
+        this(writer, dictionary, null);
+    }
+
+    /**
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     * @param statistics
+     *            if not null, updated with the work done by this writer.
+     */
+    public MultiStringReplacingWriter(final Writer writer, final ReplacementDictionary dictionary,
+            final ReplacementStatistics statistics) {
+        Objects.requireNonNull(writer, "A writer must be specified");
+        Objects.requireNonNull(dictionary, "A dictionary must be specified");
+        this.writer = writer;
+        this.dictionary = dictionary;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        process(cbuf, null, off, off + len);
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        process(null, str, off, off + len);
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        CharSequence seq = csq != null ? csq : "null";
+        process(null, seq, 0, seq.length());
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        process(null, csq != null ? csq : "null", start, end);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write(dictionary.heldBy(state), 0, dictionary.depthOf(state));
+        state = ReplacementDictionary.ROOT;
+        writer.close();
+    }
+
+    /**
+     * Locate matches within either <code>cbuf</code> or <code>seq</code>, writing out everything that can no longer be
+     * part of a match. The characters held over from the previous call logically precede <code>start</code>. Arrays
+     * are read and written directly, rather than through a {@link CharSequence} view.
+     */
+    private void process(final char[] cbuf, final CharSequence seq, final int start, final int end)
+            throws IOException {
+        long started = statistics != null ? System.nanoTime() : 0L;
+        char[] held = dictionary.heldBy(state);
+        int heldStart = start - dictionary.depthOf(state);
+        int runStart = heldStart;
+        int s = state;
+        int matches = 0;
+        long growth = 0;
+        for (int i = start; i < end; i++) {
+            s = dictionary.next(s, cbuf != null ? cbuf[i] : seq.charAt(i));
+            int match = dictionary.matchOf(s);
+            if (match != ReplacementDictionary.NO_MATCH) {
+                int matchStart = i + 1 - dictionary.lengthOf(match);
+                writeRun(held, heldStart, cbuf, seq, start, runStart, matchStart);
+                char[] replacement = dictionary.replacementOf(match);
+                writer.write(replacement, 0, replacement.length);
+                s = ReplacementDictionary.ROOT;
+                runStart = i + 1;
+                matches++;
+                growth += replacement.length - dictionary.lengthOf(match);
+            }
+        }
+        writeRun(held, heldStart, cbuf, seq, start, runStart, end - dictionary.depthOf(s));
+        state = s;
+        if (statistics != null) {
+            statistics.record(end - start, matches, growth, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Write the characters between the logical positions <code>from</code> and <code>to</code>, where those before
+     * <code>start</code> come from the held characters.
+     */
+    private void writeRun(final char[] held, final int heldStart, final char[] cbuf, final CharSequence seq,
+            final int start, final int from, final int to) throws IOException {
+        if (from < start) {
+            int heldTo = Math.min(to, start);
+            if (heldTo > from) {
+                writer.write(held, from - heldStart, heldTo - from);
+            }
+        }
+        int seqFrom = Math.max(from, start);
+        if (to <= seqFrom) {
+            return;
+        }
+        if (cbuf != null) {
+            writer.write(cbuf, seqFrom, to - seqFrom);
+        } else {
+            CharSequences.write(writer, seq, seqFrom, to);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * File to file byte sequence replacement that uses every core available to it. The source file is memory mapped in
+ * chunks which are searched in parallel on a {@link ForkJoinPool}. The output is then assembled in order, with the
+ * regions between matches transferred directly from the source file.
+ * <p>
+ * The result is identical to that of {@link ReplacingInputStream} with the same locator settings. Each chunk is
+ * searched starting <code>toLocate.length - 1</code> bytes before it so that matches spanning chunks are found. As
+ * matches are replaced left to right without overlapping, the start of a chunk is searched again in the rare event
+ * that a match from the previous chunk overruns the start of its search, but only until the search is known to agree
+ * with the original, from where the matches already found are used.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ParallelFileReplacer {
+    /**
+     * Default number of bytes of the source to search per task.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The byte sequence to locate.
+     */
+    private final byte[] toLocate;
+
+    /**
+     * Sequence of bytes that must not precede the sequence being looked for (may be null).
+     */
+    private final byte[] mustNotFollow;
+
+    /**
+     * The bytes to replace any found occurrences with.
+     */
+    private final byte[] replacement;
+
+    /**
+     * The pool to search the chunks in.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of bytes of the source to search per task.
+     */
+    private final int chunkSize;
+
+    /**
+     * Updated with the work done by each replace, if not null.
+     */
+    private final ReplacementStatistics statistics;
+
+    /**
+     * @param toLocate
+     *            the byte sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     */
+    public ParallelFileReplacer(final byte[] toLocate, final byte[] mustNotFollow, final byte[] replacement) {
+        this(toLocate, mustNotFollow, replacement, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param toLocate
+     *            the byte sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param pool
+     *            the pool to search the chunks of the file in
+     * @param chunkSize
+     *            the number of bytes of the source to search per task.
+     */
+    public ParallelFileReplacer(final byte[] toLocate, final byte[] mustNotFollow, final byte[] replacement,
+            final ForkJoinPool pool, final int chunkSize) {
+        this(toLocate, mustNotFollow, replacement, pool, chunkSize, null);
+    }
+
+    /**
+     * @param toLocate
+     *            the byte sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param pool
+     *            the pool to search the chunks of the file in
+     * @param chunkSize
+     *            the number of bytes of the source to search per task.
+     * @param statistics
+     *            if not null, updated with the work done by each replace, the process time being the elapsed time of
+     *            the whole replace.
+     */
+    public ParallelFileReplacer(final byte[] toLocate, final byte[] mustNotFollow, final byte[] replacement,
+            final ForkJoinPool pool, final int chunkSize, final ReplacementStatistics statistics) {
+        Objects.requireNonNull(toLocate, "The bytes to locate must be specified");
+        Objects.requireNonNull(replacement, "A replacement must be specified");
+        Objects.requireNonNull(pool, "A pool must be specified");
+        if (toLocate.length == 0) {
+            throw new IllegalArgumentException("The bytes to locate cannot be empty");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be greater than zero");
+        }
+        int overlap = toLocate.length - 1 + (mustNotFollow != null ? mustNotFollow.length : 0);
+        if (chunkSize > Integer.MAX_VALUE - overlap) {
+            // Each chunk is mapped along with the bytes before it that are searched again
+            throw new IllegalArgumentException(String.format(
+                    "Chunk size must be no more than %d for the sequences specified", Integer.MAX_VALUE - overlap));
+        }
+        this.toLocate = toLocate.clone();
+        this.mustNotFollow = mustNotFollow != null ? mustNotFollow.clone() : null;
+        this.replacement = replacement.clone();
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Write the content of <code>source</code> to <code>target</code> with all occurrences replaced. The target will
+     * be created or truncated.
+     *
+     * @param source
+     *            the file to read
+     * @param target
+     *            the file to write, must be different to <code>source</code>
+     * @return the number of bytes written to <code>target</code>
+     * @throws IOException
+     *             if either file cannot be accessed
+     */
+    public long replace(final Path source, final Path target) throws IOException {
+        Objects.requireNonNull(source, "A source must be specified");
+        Objects.requireNonNull(target, "A target must be specified");
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            long started = statistics != null ? System.nanoTime() : 0L;
+            long size = in.size();
+            long matchCount = 0;
+            List<ForkJoinTask<Matches>> tasks = new ArrayList<>();
+            long written = 0;
+            long position = 0;
+            try {
+                for (long chunkStart = 0; chunkStart < size; chunkStart += chunkSize) {
+                    long chunkEnd = Math.min(size, chunkStart + chunkSize);
+                    long searchStart = Math.max(0, chunkStart - (toLocate.length - 1));
+                    long primeStart = Math.max(0, searchStart - guardLength());
+                    tasks.add(pool.submit(new ChunkSearch(in, primeStart, searchStart, chunkEnd)));
+                }
+                long lastMatchEnd = 0;
+                for (int i = 0; i < tasks.size(); i++) {
+                    Matches matches = join(tasks.get(i));
+                    long chunkStart = (long) i * chunkSize;
+                    long searchStart = Math.max(0, chunkStart - (toLocate.length - 1));
+                    if (i > 0 && lastMatchEnd > searchStart - guardLength()) {
+                        // The speculative search assumed nothing was replaced just before it started, which is untrue.
+                        matches = research(in, lastMatchEnd, searchStart, Math.min(size, chunkStart + chunkSize),
+                                matches);
+                    }
+                    for (int j = 0; j < matches.count; j++) {
+                        long matchStart = matches.starts[j];
+                        written += transfer(in, position, matchStart, out);
+                        ByteBuffer replace = ByteBuffer.wrap(replacement);
+                        while (replace.hasRemaining()) {
+                            out.write(replace);
+                        }
+                        written += replacement.length;
+                        position = matchStart + toLocate.length;
+                        lastMatchEnd = position;
+                    }
+                    matchCount += matches.count;
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                // Searches not yet started are of no use now
+                for (ForkJoinTask<Matches> task : tasks) {
+                    task.cancel(true);
+                }
+                throw e;
+            }
+            written += transfer(in, position, size, out);
+            if (statistics != null) {
+                statistics.record(size, matchCount, written - size, System.nanoTime() - started);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Search the chunk ending at <code>end</code> again, following on from a match that ended at
+     * <code>lastMatchEnd</code>. The search only continues until its state is known to equal that of the speculative
+     * search, which is when both have just reset at the same match, or both have seen at least
+     * <code>toLocate.length + guardLength()</code> bytes since they last reset. From there on the speculative matches
+     * are used.
+     */
+    private Matches research(final FileChannel in, final long lastMatchEnd, final long searchStart, final long end,
+            final Matches speculative) throws IOException {
+        Matches matches = new Matches();
+        long restart = Math.max(searchStart, lastMatchEnd);
+        if (restart >= end) {
+            return matches;
+        }
+        long primeStart = Math.max(lastMatchEnd, restart - guardLength());
+        MappedByteBuffer mapped = in.map(MapMode.READ_ONLY, primeStart, end - primeStart);
+        ByteSequenceLocator locator = new ByteSequenceLocator(toLocate, mustNotFollow);
+        int window = toLocate.length + guardLength();
+        int pos = (int) (restart - primeStart);
+        locator.prime(mapped, 0, pos);
+        long reset = lastMatchEnd;
+        int next = 0;
+        while (true) {
+            // The point at which the two searches agree, unless this search finds a match first
+            long converge = Math.max(reset + window, restart);
+            long speculativeReset;
+            do {
+                while (next < speculative.count && speculative.starts[next] + toLocate.length <= converge) {
+                    next++;
+                }
+                speculativeReset = next > 0 ? speculative.starts[next - 1] + toLocate.length : searchStart;
+                if (next > 0 && speculativeReset == reset) {
+                    converge = reset;
+                    break;
+                }
+                converge = Math.max(converge, speculativeReset + window);
+            } while (next < speculative.count && speculative.starts[next] + toLocate.length <= converge);
+            int limit = (int) (Math.min(converge, end) - primeStart);
+            int found = pos < limit ? locator.find(mapped, pos, limit) : -1;
+            if (found != -1) {
+                matches.add(primeStart + found - toLocate.length);
+                locator.clear();
+                pos = found;
+                reset = primeStart + found;
+                continue;
+            }
+            if (converge < end) {
+                for (int j = next; j < speculative.count; j++) {
+                    matches.add(speculative.starts[j]);
+                }
+            }
+            return matches;
+        }
+    }
+
+    private int guardLength() {
+        return mustNotFollow != null ? mustNotFollow.length : 0;
+    }
+
+    private static Matches join(final ForkJoinTask<Matches> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static long transfer(final FileChannel in, final long from, final long to, final FileChannel out)
+            throws IOException {
+        long position = from;
+        while (position < to) {
+            position += in.transferTo(position, to - position, out);
+        }
+        return to - from;
+    }
+
+    /**
+     * Start positions of the matches located within a chunk, in order.
+     */
+    private static final class Matches {
+        private long[] starts = new long[16];
+        private int count;
+
+        void add(final long start) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = start;
+        }
+    }
+
+    /**
+     * Locate the matches that end within a chunk of the file, where the bytes from <code>primeStart</code> to
+     * <code>searchStart</code> are only used to prime the <code>mustNotFollow</code> guard.
+     */
+    private final class ChunkSearch implements Callable<Matches> {
+        private final FileChannel channel;
+        private final long primeStart;
+        private final long searchStart;
+        private final long end;
+
+        ChunkSearch(final FileChannel channel, final long primeStart, final long searchStart, final long end) {
+            this.channel = channel;
+            this.primeStart = primeStart;
+            this.searchStart = searchStart;
+            this.end = end;
+        }
+
+        @Override
+        public Matches call() throws IOException {
+            Matches matches = new Matches();
+            if (searchStart >= end) {
+                return matches;
+            }
+            MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, primeStart, end - primeStart);
+            ByteSequenceLocator locator = new ByteSequenceLocator(toLocate, mustNotFollow);
+            int limit = (int) (end - primeStart);
+            int pos = (int) (searchStart - primeStart);
+            locator.prime(mapped, 0, pos);
+            int found;
+            while ((found = locator.find(mapped, pos, limit)) != -1) {
+                matches.add(primeStart + found - toLocate.length);
+                locator.clear();
+                pos = found;
+            }
+            return matches;
+        }
+    }
+}
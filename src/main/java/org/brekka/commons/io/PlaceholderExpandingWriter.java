@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Stream based expansion of delimiter bounded placeholders such as <code>${name}</code> as a {@link Writer}. The value
+ * for each placeholder is obtained from a resolver function, which is passed the key as a reused
+ * {@link CharSequence}, so no {@link String} is allocated per placeholder. Placeholders for which the resolver returns
+ * null are written unchanged.
+ * <p>
+ * For templates that are rendered repeatedly, {@link PlaceholderTemplate} avoids parsing the template every time.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class PlaceholderExpandingWriter extends Writer {
+
+    /**
+     * Default placeholder prefix
+     */
+    public static final String DEFAULT_PREFIX = "${";
+
+    /**
+     * Default placeholder suffix
+     */
+    public static final String DEFAULT_SUFFIX = "}";
+
+    /**
+     * Default maximum length of a placeholder key.
+     */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 256;
+
+    /**
+     * The writer to output the expanded character stream to.
+     */
+    private final Writer writer;
+
+    /**
+     * Splits the characters written into literals and placeholders.
+     */
+    private final PlaceholderParser parser;
+
+    /**
+     * Writes the output of the parser.
+     */
+    private final Expander expander;
+
+    /**
+     * @param writer
+     *            the destination for the expanded character data.
+     * @param values
+     *            the value for each placeholder key.
+     */
+    public PlaceholderExpandingWriter(final Writer writer, final Map<String, ? extends CharSequence> values) {
+        this(writer, new KeyLookup(values));
+    }
+
+    /**
+     * @param writer
+     *            the destination for the expanded character data.
+     * @param resolver
+     *            resolves the value for each placeholder key. The key passed is only valid for the duration of the
+     *            call.
+     */
+    public PlaceholderExpandingWriter(final Writer writer,
+            final Function<? super CharSequence, ? extends CharSequence> resolver) {
+        this(writer, DEFAULT_PREFIX, DEFAULT_SUFFIX, DEFAULT_MAX_KEY_LENGTH, resolver);
+    }
+
+    /**
+     * @param writer
+     *            the destination for the expanded character data.
+     * @param prefix
+     *            marks the start of a placeholder
+     * @param suffix
+     *            marks the end of a placeholder
+     * @param maxKeyLength
+     *            the longest key that will be recognised, limiting how much will be buffered should the prefix appear
+     *            without a suffix.
+     * @param resolver
+     *            resolves the value for each placeholder key. The key passed is only valid for the duration of the
+     *            call.
+     */
+    public PlaceholderExpandingWriter(final Writer writer, final String prefix, final String suffix,
+            final int maxKeyLength, final Function<? super CharSequence, ? extends CharSequence> resolver) {
+        Objects.requireNonNull(writer, "A writer must be specified");
+        Objects.requireNonNull(resolver, "A resolver must be specified");
+        this.writer = writer;
+        this.parser = new PlaceholderParser(prefix, suffix, maxKeyLength);
+        this.expander = new Expander(writer, prefix, suffix, resolver);
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        parser.parse(CharBuffer.wrap(cbuf), off, off + len, expander);
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        parser.parse(str, off, off + len, expander);
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        CharSequence seq = csq != null ? csq : "null";
+        parser.parse(seq, 0, seq.length(), expander);
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        parser.parse(csq != null ? csq : "null", start, end, expander);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.finish(expander);
+        writer.close();
+    }
+
+    /**
+     * Writes literal text and resolved placeholders to the underlying writer.
+     */
+    private static final class Expander implements PlaceholderParser.Handler {
+        private final Writer writer;
+        private final String prefix;
+        private final String suffix;
+        private final Function<? super CharSequence, ? extends CharSequence> resolver;
+
+        Expander(final Writer writer, final String prefix, final String suffix,
+                final Function<? super CharSequence, ? extends CharSequence> resolver) {
+            this.writer = writer;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.resolver = resolver;
+        }
+
+        @Override
+        public void literal(final CharSequence seq, final int start, final int end) throws IOException {
+            if (end > start) {
+                CharSequences.write(writer, seq, start, end);
+            }
+        }
+
+        @Override
+        public void placeholder(final CharSequence key) throws IOException {
+            CharSequence value = resolver.apply(key);
+            if (value != null) {
+                CharSequences.write(writer, value, 0, value.length());
+            } else {
+                writer.write(prefix);
+                CharSequences.write(writer, key, 0, key.length());
+                writer.write(suffix);
+            }
+        }
+    }
+}
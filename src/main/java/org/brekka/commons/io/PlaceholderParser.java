@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Streaming parser that splits characters into literal text and delimiter bounded placeholder keys, such as
+ * <code>${name}</code>. Shared by {@link PlaceholderExpandingWriter} and {@link PlaceholderTemplate} so that both
+ * interpret text identically.
+ * <p>
+ * The key is whatever falls between the prefix and the first suffix that follows it. Should no suffix appear within
+ * <code>maxKeyLength</code> characters, the prefix and the characters consumed so far are treated as literal text.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+class PlaceholderParser {
+
+    /**
+     * Receives the parsed parts of the text, in order.
+     */
+    interface Handler {
+        /**
+         * @param seq
+         *            contains the literal text
+         * @param start
+         *            index of the first literal character
+         * @param end
+         *            index after the last literal character
+         */
+        void literal(CharSequence seq, int start, int end) throws IOException;
+
+        /**
+         * @param key
+         *            the key of a placeholder. Only valid for the duration of the call.
+         */
+        void placeholder(CharSequence key) throws IOException;
+    }
+
+    private final String prefix;
+
+    private final String suffix;
+
+    private final int maxKeyLength;
+
+    /**
+     * Locates the start of each placeholder.
+     */
+    private final CharSequenceLocator prefixLocator;
+
+    /**
+     * Locates the end of each placeholder.
+     */
+    private final CharSequenceLocator suffixLocator;
+
+    /**
+     * Reused to collect the key (and any suffix characters) of the placeholder currently being parsed.
+     */
+    private final StringBuilder key = new StringBuilder();
+
+    /**
+     * Whether the parser is within a placeholder.
+     */
+    private boolean inKey;
+
+    PlaceholderParser(final String prefix, final String suffix, final int maxKeyLength) {
+        Objects.requireNonNull(prefix, "A prefix must be specified");
+        Objects.requireNonNull(suffix, "A suffix must be specified");
+        if (maxKeyLength < 0) {
+            throw new IllegalArgumentException("The maximum key length cannot be negative");
+        }
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.maxKeyLength = maxKeyLength;
+        this.prefixLocator = new CharSequenceLocator(prefix);
+        this.suffixLocator = new CharSequenceLocator(suffix);
+    }
+
+    /**
+     * Parse the next block of characters. Partial prefixes and placeholders are carried over to the next call.
+     */
+    void parse(final CharSequence seq, final int start, final int end, final Handler handler) throws IOException {
+        int pos = start;
+        while (pos < end) {
+            if (inKey) {
+                pos = parseKey(seq, pos, end, handler);
+            } else {
+                pos = parseLiteral(seq, pos, end, handler);
+            }
+        }
+    }
+
+    /**
+     * Signal that there are no more characters, so anything held is literal.
+     */
+    void finish(final Handler handler) throws IOException {
+        if (inKey) {
+            handler.literal(prefix, 0, prefix.length());
+            handler.literal(key, 0, key.length());
+            inKey = false;
+        } else {
+            handler.literal(prefix, 0, prefixLocator.getCandidateLength());
+        }
+        prefixLocator.clear();
+        suffixLocator.clear();
+    }
+
+    private int parseLiteral(final CharSequence seq, final int start, final int end, final Handler handler)
+            throws IOException {
+        // The characters held by the locator can only be the start of the prefix
+        int held = prefixLocator.getCandidateLength();
+        int found = prefixLocator.find(seq, start, end);
+        int literalEnd = found == -1 ? end - prefixLocator.getCandidateLength() : found - prefix.length();
+        if (literalEnd < start) {
+            // Some (or all) of the held characters are still held or are the start of a placeholder
+            handler.literal(prefix, 0, held - (start - literalEnd));
+        } else {
+            handler.literal(prefix, 0, held);
+            handler.literal(seq, start, literalEnd);
+        }
+        if (found == -1) {
+            return end;
+        }
+        prefixLocator.clear();
+        key.setLength(0);
+        inKey = true;
+        return found;
+    }
+
+    private int parseKey(final CharSequence seq, final int start, final int end, final Handler handler)
+            throws IOException {
+        int allowed = maxKeyLength + suffix.length() - key.length();
+        int limit = Math.min(end, start + allowed);
+        int found = suffixLocator.find(seq, start, limit);
+        key.append(seq, start, found == -1 ? limit : found);
+        if (found != -1) {
+            key.setLength(key.length() - suffix.length());
+            handler.placeholder(key);
+        } else if (limit == end && key.length() < maxKeyLength + suffix.length()) {
+            return end;
+        } else {
+            // Too long to be a key, must be literal text
+            handler.literal(prefix, 0, prefix.length());
+            handler.literal(key, 0, key.length());
+        }
+        suffixLocator.clear();
+        inKey = false;
+        return found == -1 ? limit : found;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A template containing delimiter bounded placeholders such as <code>${name}</code>, parsed once into a list of
+ * literal and placeholder segments so that it can be rendered any number of times without scanning the text again.
+ * Templates are immutable and can be shared between threads. The text is interpreted in exactly the same way as by
+ * {@link PlaceholderExpandingWriter}.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class PlaceholderTemplate {
+
+    /**
+     * The literal text of the template, with the placeholders removed.
+     */
+    private final String literals;
+
+    /**
+     * For each segment, the index in <code>literals</code> that it ends at.
+     */
+    private final int[] literalEnds;
+
+    /**
+     * For each segment, the key of the placeholder that follows its literal text, or null for the last segment.
+     */
+    private final String[] keys;
+
+    /**
+     * For each segment, the placeholder as it appeared in the template, used when no value is available.
+     */
+    private final String[] placeholders;
+
+    /**
+     * @param template
+     *            the template text, using the default <code>${</code> and <code>}</code> delimiters.
+     */
+    public PlaceholderTemplate(final String template) {
+        this(template, PlaceholderExpandingWriter.DEFAULT_PREFIX, PlaceholderExpandingWriter.DEFAULT_SUFFIX,
+                PlaceholderExpandingWriter.DEFAULT_MAX_KEY_LENGTH);
+    }
+
+    /**
+     * @param template
+     *            the template text
+     * @param prefix
+     *            marks the start of a placeholder
+     * @param suffix
+     *            marks the end of a placeholder
+     * @param maxKeyLength
+     *            the longest key that will be recognised.
+     */
+    public PlaceholderTemplate(final String template, final String prefix, final String suffix,
+            final int maxKeyLength) {
+        Objects.requireNonNull(template, "A template must be specified");
+        Compiler compiler = new Compiler(prefix, suffix);
+        PlaceholderParser parser = new PlaceholderParser(prefix, suffix, maxKeyLength);
+        try {
+            parser.parse(template, 0, template.length(), compiler);
+            parser.finish(compiler);
+        } catch (IOException e) {
+            // Not possible, the compiler does no I/O
+            throw new UncheckedIOException(e);
+        }
+        compiler.literalEnds.add(compiler.literals.length());
+        compiler.keys.add(null);
+        compiler.placeholders.add(null);
+        this.literals = compiler.literals.toString();
+        this.literalEnds = new int[compiler.literalEnds.size()];
+        for (int i = 0; i < literalEnds.length; i++) {
+            literalEnds[i] = compiler.literalEnds.get(i);
+        }
+        this.keys = compiler.keys.toArray(new String[0]);
+        this.placeholders = compiler.placeholders.toArray(new String[0]);
+    }
+
+    /**
+     * Render the template to a writer.
+     *
+     * @param values
+     *            the value for each placeholder key. Placeholders without a value are written unchanged.
+     * @param out
+     *            the writer to render to
+     * @throws IOException
+     *             if the writer fails
+     */
+    public void render(final Map<String, ? extends CharSequence> values, final Writer out) throws IOException {
+        Objects.requireNonNull(values, "The values must be specified");
+        render((Function<String, CharSequence>) values::get, out);
+    }
+
+    /**
+     * Render the template to a writer.
+     *
+     * @param resolver
+     *            resolves the value for each placeholder key. Placeholders for which null is returned are written
+     *            unchanged.
+     * @param out
+     *            the writer to render to
+     * @throws IOException
+     *             if the writer fails
+     */
+    public void render(final Function<? super String, ? extends CharSequence> resolver, final Writer out)
+            throws IOException {
+        Objects.requireNonNull(resolver, "A resolver must be specified");
+        Objects.requireNonNull(out, "A writer must be specified");
+        int start = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int end = literalEnds[i];
+            if (end > start) {
+                out.write(literals, start, end - start);
+            }
+            start = end;
+            String key = keys[i];
+            if (key != null) {
+                CharSequence value = resolver.apply(key);
+                if (value != null) {
+                    CharSequences.write(out, value, 0, value.length());
+                } else {
+                    out.write(placeholders[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Render the template to a string.
+     *
+     * @param values
+     *            the value for each placeholder key. Placeholders without a value are left unchanged.
+     * @return the rendered template
+     */
+    public String render(final Map<String, ? extends CharSequence> values) {
+        Objects.requireNonNull(values, "The values must be specified");
+        return render((Function<String, CharSequence>) values::get);
+    }
+
+    /**
+     * Render the template to a string.
+     *
+     * @param resolver
+     *            resolves the value for each placeholder key. Placeholders for which null is returned are left
+     *            unchanged.
+     * @return the rendered template
+     */
+    public String render(final Function<? super String, ? extends CharSequence> resolver) {
+        StringWriter out = new StringWriter(literals.length() + keys.length * 16);
+        try {
+            render(resolver, out);
+        } catch (IOException e) {
+            // Not possible with a StringWriter
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Collects the segments of the template as it is parsed.
+     */
+    private static final class Compiler implements PlaceholderParser.Handler {
+        private final String prefix;
+        private final String suffix;
+        private final StringBuilder literals = new StringBuilder();
+        private final List<Integer> literalEnds = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> placeholders = new ArrayList<>();
+
+        Compiler(final String prefix, final String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void literal(final CharSequence seq, final int start, final int end) {
+            literals.append(seq, start, end);
+        }
+
+        @Override
+        public void placeholder(final CharSequence key) {
+            String k = key.toString();
+            literalEnds.add(literals.length());
+            keys.add(k);
+            placeholders.add(prefix + k + suffix);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * A compiled set of strings to locate, each with its own replacement. The strings are compiled into a single
+ * Aho-Corasick automaton so that any number of them can be located in one pass over a stream of characters.
+ * <p>
+ * A match is replaced as soon as it completes. Where more than one string ends at the same position, the longest of
+ * them is the one replaced. The dictionary is immutable and may be shared between any number of streams/threads, the
+ * per-stream matching state is just the current automaton state (an int).
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacementDictionary {
+
+    /**
+     * The state that all matching starts from.
+     */
+    static final int ROOT = 0;
+
+    /**
+     * Indicates that a state does not complete any of the strings being located.
+     */
+    static final int NO_MATCH = -1;
+
+    /**
+     * The strings being located, indexed by pattern number.
+     */
+    private final char[][] patterns;
+
+    /**
+     * The replacement for each pattern, indexed by pattern number.
+     */
+    private final char[][] replacements;
+
+    /**
+     * Sorted distinct characters that appear in any of the patterns.
+     */
+    private final char[] alphabet;
+
+    /**
+     * Fast lookup of the character class for ASCII characters (zero meaning the character is not in any pattern).
+     */
+    private final int[] asciiClasses = new int[128];
+
+    /**
+     * Full transition table, <code>states * (alphabet.length + 1)</code> in size.
+     */
+    private final int[] transitions;
+
+    /**
+     * Width of each row of the transition table.
+     */
+    private final int width;
+
+    /**
+     * The number of characters matched by each state.
+     */
+    private final int[] depths;
+
+    /**
+     * A pattern for which each state is a prefix. Used to reconstruct characters held by the state.
+     */
+    private final int[] prefixOf;
+
+    /**
+     * The pattern (if any) that is completed on reaching each state.
+     */
+    private final int[] matches;
+
+    /**
+     * Length of the longest pattern.
+     */
+    private final int maxLength;
+
+    /**
+     * @param replacements
+     *            map of the strings to locate to the string that should replace them.
+     */
+    public ReplacementDictionary(final Map<String, String> replacements) {
+        Objects.requireNonNull(replacements, "The replacements must be specified");
+        if (replacements.isEmpty()) {
+            throw new IllegalArgumentException("At least one replacement must be specified");
+        }
+        int count = replacements.size();
+        this.patterns = new char[count][];
+        this.replacements = new char[count][];
+        TreeSet<Character> chars = new TreeSet<>();
+        int totalLength = 0;
+        int longest = 0;
+        int index = 0;
+        for (Entry<String, String> entry : replacements.entrySet()) {
+            String toLocate = entry.getKey();
+            Objects.requireNonNull(toLocate, "The string to locate must be specified");
+            Objects.requireNonNull(entry.getValue(), "A replacement must be specified");
+            if (toLocate.isEmpty()) {
+                throw new IllegalArgumentException("The string to locate cannot be empty");
+            }
+            this.patterns[index] = toLocate.toCharArray();
+            this.replacements[index] = entry.getValue().toCharArray();
+            for (char c : this.patterns[index]) {
+                chars.add(c);
+            }
+            totalLength += toLocate.length();
+            longest = Math.max(longest, toLocate.length());
+            index++;
+        }
+        this.maxLength = longest;
+        this.alphabet = new char[chars.size()];
+        index = 0;
+        for (Character c : chars) {
+            this.alphabet[index++] = c;
+        }
+        for (int i = 0; i < this.alphabet.length && this.alphabet[i] < 128; i++) {
+            this.asciiClasses[this.alphabet[i]] = i + 1;
+        }
+
+        int maxStates = totalLength + 1;
+        this.width = this.alphabet.length + 1;
+        this.transitions = new int[maxStates * this.width];
+        this.depths = new int[maxStates];
+        this.prefixOf = new int[maxStates];
+        this.matches = new int[maxStates];
+        Arrays.fill(this.matches, NO_MATCH);
+        int states = buildTrie(maxStates);
+        buildFailureTransitions(states);
+    }
+
+    /**
+     * Determine the next state of the automaton on encountering the specified character.
+     *
+     * @param state
+     *            the current state
+     * @param c
+     *            the character encountered
+     * @return the new state
+     */
+    int next(final int state, final char c) {
+        return transitions[state * width + classOf(c)];
+    }
+
+    /**
+     * @param state
+     *            the state to check
+     * @return the index of the pattern completed by arriving at this state, or {@link #NO_MATCH}.
+     */
+    int matchOf(final int state) {
+        return matches[state];
+    }
+
+    /**
+     * @param state
+     *            the state to check
+     * @return the number of trailing characters that are held by the state as they may still form part of a match.
+     */
+    int depthOf(final int state) {
+        return depths[state];
+    }
+
+    /**
+     * The characters held by a state are always the first {@link #depthOf(int)} characters of the returned array.
+     *
+     * @param state
+     *            the state to check
+     * @return the characters that are held by the state.
+     */
+    char[] heldBy(final int state) {
+        return patterns[prefixOf[state]];
+    }
+
+    /**
+     * @param index
+     *            the pattern index
+     * @return the length of the pattern
+     */
+    int lengthOf(final int index) {
+        return patterns[index].length;
+    }
+
+    /**
+     * @param index
+     *            the pattern index
+     * @return the replacement characters for the pattern. Must not be modified.
+     */
+    char[] replacementOf(final int index) {
+        return replacements[index];
+    }
+
+    /**
+     * @return the length of the longest string being located.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    private int classOf(final char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        int idx = Arrays.binarySearch(alphabet, c);
+        return idx >= 0 ? idx + 1 : 0;
+    }
+
+    /**
+     * Build the basic trie of patterns, where a zero transition (back to the root) means there is no child.
+     */
+    private int buildTrie(final int maxStates) {
+        int states = 1;
+        for (int p = 0; p < patterns.length; p++) {
+            char[] pattern = patterns[p];
+            int state = ROOT;
+            for (int i = 0; i < pattern.length; i++) {
+                int slot = state * width + classOf(pattern[i]);
+                if (transitions[slot] == ROOT) {
+                    transitions[slot] = states;
+                    depths[states] = i + 1;
+                    prefixOf[states] = p;
+                    states++;
+                }
+                state = transitions[slot];
+            }
+            matches[state] = p;
+        }
+        return states;
+    }
+
+    /**
+     * Breadth-first pass over the trie, replacing missing transitions with those of the failure state so that every
+     * step through the automaton is a single table lookup.
+     */
+    private void buildFailureTransitions(final int states) {
+        int[] failures = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        // Character class zero never appears in a pattern so always leads back to the root
+        for (int cls = 1; cls < width; cls++) {
+            int child = transitions[cls];
+            if (child != ROOT) {
+                failures[child] = ROOT;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int failure = failures[state];
+            if (matches[state] == NO_MATCH) {
+                matches[state] = matches[failure];
+            }
+            int row = state * width;
+            int failureRow = failure * width;
+            for (int cls = 1; cls < width; cls++) {
+                int child = transitions[row + cls];
+                if (child != ROOT) {
+                    failures[child] = transitions[failureRow + cls];
+                    queue[tail++] = child;
+                } else {
+                    transitions[row + cls] = transitions[failureRow + cls];
+                }
+            }
+        }
+    }
+}
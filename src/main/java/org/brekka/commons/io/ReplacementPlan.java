@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A single string replacement compiled once, ready to be applied to any number of streams. The plan holds the
+ * pattern tables and replacement characters, which are immutable and shared by every locator, reader and writer
+ * created from it, leaving only a small amount of matching state to be allocated per stream. Plans are thread safe, so
+ * can be held in a static field and used for every request.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public final class ReplacementPlan {
+
+    /**
+     * The compiled sequence to locate.
+     */
+    private final LocatorPattern pattern;
+
+    /**
+     * The replacement for any occurrences, shared with the readers and writers created.
+     */
+    private final char[] replacement;
+
+    /**
+     * @param toLocate
+     *            the character sequence to locate
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     */
+    public ReplacementPlan(final String toLocate, final String replacement) {
+        this(toLocate, null, CaseFolding.NONE, replacement);
+    }
+
+    /**
+     * @param toLocate
+     *            the character sequence to locate
+     * @param mustNotFollow
+     *            if not null, occurrences of <code>toLocate</code> immediately preceded by this sequence are ignored.
+     * @param folding
+     *            how characters are folded before comparison, applies to both sequences.
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     */
+    public ReplacementPlan(final String toLocate, final String mustNotFollow, final CaseFolding folding,
+            final String replacement) {
+        Objects.requireNonNull(replacement, "A replacement must be specified");
+        this.pattern = new LocatorPattern(toLocate, mustNotFollow, folding);
+        this.replacement = replacement.toCharArray();
+    }
+
+    /**
+     * Create a locator for a single stream.
+     *
+     * @return a new locator sharing this plan's tables
+     */
+    public CharSequenceLocator newLocator() {
+        return new CharSequenceLocator(pattern);
+    }
+
+    /**
+     * Apply the replacement to the characters read from <code>reader</code>.
+     *
+     * @param reader
+     *            the source of character data that will be filtered for replacement.
+     * @return the replacing reader
+     */
+    public StringReplacingReader newReader(final Reader reader) {
+        return newReader(reader, StringReplacingReader.DEFAULT_BUFFER_SIZE, null);
+    }
+
+    /**
+     * Apply the replacement to the characters read from <code>reader</code>.
+     *
+     * @param reader
+     *            the source of character data that will be filtered for replacement.
+     * @param bufferSize
+     *            how many characters to read from the underlying reader at a time.
+     * @param statistics
+     *            if not null, updated with the work done by the reader.
+     * @return the replacing reader
+     */
+    public StringReplacingReader newReader(final Reader reader, final int bufferSize,
+            final ReplacementStatistics statistics) {
+        return new StringReplacingReader(reader, newLocator(), replacement, bufferSize, statistics);
+    }
+
+    /**
+     * Apply the replacement to the characters written, before passing them on to <code>writer</code>.
+     *
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @return the replacing writer
+     */
+    public StringReplacingWriter newWriter(final Writer writer) {
+        return newWriter(writer, null);
+    }
+
+    /**
+     * Apply the replacement to the characters written, before passing them on to <code>writer</code>.
+     *
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param statistics
+     *            if not null, updated with the work done by the writer.
+     * @return the replacing writer
+     */
+    public StringReplacingWriter newWriter(final Writer writer, final ReplacementStatistics statistics) {
+        return new StringReplacingWriter(writer, newLocator(), replacement, statistics);
+    }
+
+    /**
+     * @return the string that occurrences are replaced with.
+     */
+    public String getReplacement() {
+        return new String(replacement);
+    }
+}
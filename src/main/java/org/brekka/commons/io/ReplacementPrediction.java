@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+/**
+ * The outcome of a replacement determined without producing any output, see
+ * {@link ReplacingChannelTransfer#predict(java.nio.channels.ReadableByteChannel)}. The length is exact, so can be used
+ * for a <code>Content-Length</code> ahead of the real transfer.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public final class ReplacementPrediction {
+
+    /**
+     * The number of bytes the replacement will produce.
+     */
+    private final long length;
+
+    /**
+     * The number of matches that will be replaced.
+     */
+    private final long matchCount;
+
+    /**
+     * @param length
+     *            the number of bytes the replacement will produce.
+     * @param matchCount
+     *            the number of matches that will be replaced.
+     */
+    ReplacementPrediction(final long length, final long matchCount) {
+        this.length = length;
+        this.matchCount = matchCount;
+    }
+
+    /**
+     * @return the number of bytes the replacement will produce.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the number of matches that will be replaced.
+     */
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplacementPrediction[length=%d, matchCount=%d]", length, matchCount);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters describing the work done by the replacing streams that share an instance. The counters are striped so
+ * can be updated by many streams on different threads without contention. Character streams count characters, while
+ * the byte level streams ({@link ReplacingInputStream}, {@link ReplacingOutputStream} and
+ * {@link ReplacingChannelTransfer}) count bytes, so they are best not mixed within a single instance.
+ * <p>
+ * Instances obtained from {@link #forPipeline(String)} are shared by name and registered with the platform MBean server
+ * under the {@value #DOMAIN} domain, so the streams making up a named pipeline can be observed together. Both this
+ * class and the MBean server hold on to a named instance until {@link #removePipeline(String)} is called, so it must
+ * be called once the pipeline is finished with. Within a web application that means on shutdown, for example from
+ * <code>ServletContextListener.contextDestroyed</code>, as otherwise the instance and with it the class loader of the
+ * application outlive each redeployment.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacementStatistics implements ReplacementStatisticsMBean {
+
+    /**
+     * The JMX domain that named instances are registered under.
+     */
+    public static final String DOMAIN = "org.brekka.commons.io";
+
+    /**
+     * The named instances.
+     */
+    private static final ConcurrentMap<String, ReplacementStatistics> PIPELINES = new ConcurrentHashMap<>();
+
+    /**
+     * Characters (or bytes) checked for matches.
+     */
+    private final LongAdder processed = new LongAdder();
+
+    /**
+     * Matches replaced.
+     */
+    private final LongAdder matches = new LongAdder();
+
+    /**
+     * Output length minus input length.
+     */
+    private final LongAdder expansion = new LongAdder();
+
+    /**
+     * Time spent processing. Readers and input streams time each scan of their buffer, which is little more than
+     * locating matches. Writers, output streams and the channel transfer time each call as a whole, so include the time
+     * taken to pass the result on downstream, but single character writes do not pay for reading the clock twice per
+     * character.
+     */
+    private final LongAdder processNanos = new LongAdder();
+
+    /**
+     * Obtain the statistics for the named pipeline, creating and registering them with the platform MBean server if
+     * this is the first time the name has been used. Should registration fail, the statistics are still collected and
+     * available from the instance returned. The instance is retained until {@link #removePipeline(String)} is called.
+     *
+     * @param name
+     *            identifies the pipeline
+     * @return the statistics for the pipeline
+     */
+    public static ReplacementStatistics forPipeline(final String name) {
+        Objects.requireNonNull(name, "A pipeline name must be specified");
+        return PIPELINES.computeIfAbsent(name, key -> {
+            ReplacementStatistics statistics = new ReplacementStatistics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, objectName(key));
+            } catch (JMException e) {
+                // Still usable without JMX, for example where another class loader has already registered the name.
+            }
+            return statistics;
+        });
+    }
+
+    /**
+     * Forget the named pipeline, unregistering it from the platform MBean server. Must be called for each name used
+     * with {@link #forPipeline(String)} once it is no longer needed, for the instance to be released.
+     *
+     * @param name
+     *            identifies the pipeline
+     */
+    public static void removePipeline(final String name) {
+        Objects.requireNonNull(name, "A pipeline name must be specified");
+        if (PIPELINES.remove(name) != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                ObjectName objectName = objectName(name);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                // Nothing more can be done
+            }
+        }
+    }
+
+    /**
+     * The name that the statistics for a pipeline are registered under.
+     *
+     * @param name
+     *            identifies the pipeline
+     * @return the JMX object name
+     * @throws JMException
+     *             if the name cannot be formed
+     */
+    public static ObjectName objectName(final String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=ReplacementStatistics,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    @Override
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    @Override
+    public long getExpansion() {
+        return expansion.sum();
+    }
+
+    @Override
+    public long getProcessNanos() {
+        return processNanos.sum();
+    }
+
+    @Override
+    public void reset() {
+        processed.reset();
+        matches.reset();
+        expansion.reset();
+        processNanos.reset();
+    }
+
+    /**
+     * Record the work done by a single read, write or scan.
+     *
+     * @param count
+     *            the characters (or bytes) checked for matches
+     * @param matchCount
+     *            the matches replaced
+     * @param growth
+     *            the output length minus the input length as a result of those replacements
+     * @param nanos
+     *            the time taken
+     */
+    void record(final long count, final long matchCount, final long growth, final long nanos) {
+        processed.add(count);
+        if (matchCount != 0) {
+            matches.add(matchCount);
+            expansion.add(growth);
+        }
+        processNanos.add(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("processed=%d, matches=%d, expansion=%d, processNanos=%d",
+                getProcessed(), getMatches(), getExpansion(), getProcessNanos());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+/**
+ * JMX view of {@link ReplacementStatistics}.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public interface ReplacementStatisticsMBean {
+
+    /**
+     * @return the number of characters (or bytes) checked for matches.
+     */
+    long getProcessed();
+
+    /**
+     * @return the number of matches replaced.
+     */
+    long getMatches();
+
+    /**
+     * @return how many more characters (or bytes) have been output than were input as a result of replacement,
+     *         negative where the replacements are shorter than what they replace.
+     */
+    long getExpansion();
+
+    /**
+     * @return the time spent processing, in nanoseconds. For readers and input streams this is the time spent scanning
+     *         for matches. For writers, output streams and channel transfers it is the time spent in each call, which
+     *         includes passing the result on downstream.
+     */
+    long getProcessNanos();
+
+    /**
+     * Set all of the counters back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Transfer the content of a {@link ReadableByteChannel} to a {@link WritableByteChannel}, replacing any occurrences of
+ * a byte sequence along the way. Data is read into a direct {@link ByteBuffer} and regions that are not part of a match
+ * are written straight from that buffer, so the content is never copied onto the heap.
+ * <p>
+ * The outcome of a transfer can also be predicted without writing anything (see {@link #predict(ReadableByteChannel)}),
+ * for example to set a <code>Content-Length</code> up front. Sources that can be read more than once, such as a
+ * {@link FileChannel} or a {@link java.nio.MappedByteBuffer}, can be predicted and then transferred without buffering
+ * the result.
+ * <p>
+ * Instances can be reused for any number of transfers, but only by one thread at a time.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacingChannelTransfer {
+    /**
+     * Default size of the buffer used to read from the source channel.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Locate the byte sequence being searched for from the bytes read from the source.
+     */
+    private final ByteSequenceLocator locator;
+
+    /**
+     * The replacement bytes, also held in direct memory.
+     */
+    private final ByteBuffer replacement;
+
+    /**
+     * Direct buffer the source is read into.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * View of <code>buffer</code> used to write regions of it without disturbing its position and limit.
+     */
+    private final ByteBuffer region;
+
+    /**
+     * Updated with the work done by transfers, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
+    /**
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     */
+    public ReplacingChannelTransfer(final ByteSequenceLocator locator, final byte[] replacement) {
+        this(locator, replacement, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param bufferSize
+     *            the size of the direct buffer used to read from the source channel. Must be larger than the byte
+     *            sequence being located.
+     */
+    public ReplacingChannelTransfer(final ByteSequenceLocator locator, final byte[] replacement, final int bufferSize) {
+        this(locator, replacement, bufferSize, null);
+    }
+
+    /**
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param bufferSize
+     *            the size of the direct buffer used to read from the source channel. Must be larger than the byte
+     *            sequence being located.
+     * @param statistics
+     *            if not null, updated with the work done by each transfer (but not by predictions).
+     */
+    public ReplacingChannelTransfer(final ByteSequenceLocator locator, final byte[] replacement, final int bufferSize,
+            final ReplacementStatistics statistics) {
+        Objects.requireNonNull(locator, "A locator must be specified");
+        Objects.requireNonNull(replacement, "A replacement must be specified");
+        if (bufferSize <= locator.getLength()) {
+            throw new IllegalArgumentException(String.format(
+                    "Buffer size must be greater than the length of the bytes to locate (%d)", locator.getLength()));
+        }
+        this.locator = locator;
+        this.replacement = ByteBuffer.allocateDirect(replacement.length);
+        this.replacement.put(replacement);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.region = buffer.duplicate();
+        this.statistics = statistics;
+    }
+
+    /**
+     * Transfer the entire content of <code>source</code> to <code>target</code>, replacing as it goes. Neither channel
+     * is closed.
+     *
+     * @param source
+     *            the channel to read from, until the end of stream is reached
+     * @param target
+     *            the channel to write the result to
+     * @return the number of bytes written to <code>target</code>
+     * @throws IOException
+     *             if either channel fails
+     */
+    public long transfer(final ReadableByteChannel source, final WritableByteChannel target) throws IOException {
+        Objects.requireNonNull(source, "A source channel must be specified");
+        Objects.requireNonNull(target, "A target channel must be specified");
+        locator.clear();
+        buffer.clear();
+        long written = 0;
+        int emitPos = 0;
+        int scanPos = 0;
+        while (source.read(buffer) != -1) {
+            long started = statistics != null ? System.nanoTime() : 0L;
+            int limit = buffer.position();
+            int from = scanPos;
+            int matches = 0;
+            int found;
+            while ((found = locator.find(buffer, scanPos, limit)) != -1) {
+                written += write(target, region, emitPos, found - locator.getCandidateLength());
+                replacement.clear();
+                written += writeFully(target, replacement);
+                locator.clear();
+                emitPos = found;
+                scanPos = found;
+                matches++;
+            }
+            scanPos = limit;
+            int committed = Math.max(emitPos, limit - locator.getCandidateLength());
+            written += write(target, region, emitPos, committed);
+            emitPos = committed;
+            if (statistics != null) {
+                statistics.record(limit - from, matches, growth(matches), System.nanoTime() - started);
+            }
+            // Retain whatever may still be part of a match at the start of the buffer
+            buffer.limit(limit).position(emitPos);
+            buffer.compact();
+            scanPos -= emitPos;
+            emitPos = 0;
+            if (!buffer.hasRemaining()) {
+                throw new IllegalStateException("Buffer is too small for the bytes being located");
+            }
+        }
+        written += write(target, region, emitPos, buffer.position());
+        locator.clear();
+        return written;
+    }
+
+    /**
+     * Transfer the remaining content of a buffer, such as a {@link java.nio.MappedByteBuffer}, to <code>target</code>,
+     * replacing as it goes. Regions that are not part of a match are written straight from <code>source</code>, whose
+     * position is left unchanged so that it can be predicted and transferred in either order. The channel is not
+     * closed.
+     *
+     * @param source
+     *            the bytes to transfer
+     * @param target
+     *            the channel to write the result to
+     * @return the number of bytes written to <code>target</code>
+     * @throws IOException
+     *             if the channel fails
+     */
+    public long transfer(final ByteBuffer source, final WritableByteChannel target) throws IOException {
+        Objects.requireNonNull(source, "A source buffer must be specified");
+        Objects.requireNonNull(target, "A target channel must be specified");
+        locator.clear();
+        ByteBuffer view = source.duplicate();
+        int end = source.limit();
+        long started = statistics != null ? System.nanoTime() : 0L;
+        int emitPos = source.position();
+        long written = 0;
+        int matches = 0;
+        int found;
+        while ((found = locator.find(source, emitPos, end)) != -1) {
+            written += write(target, view, emitPos, found - locator.getCandidateLength());
+            replacement.clear();
+            written += writeFully(target, replacement);
+            locator.clear();
+            emitPos = found;
+            matches++;
+        }
+        written += write(target, view, emitPos, end);
+        locator.clear();
+        if (statistics != null) {
+            statistics.record(source.remaining(), matches, growth(matches), System.nanoTime() - started);
+        }
+        return written;
+    }
+
+    /**
+     * Determine the outcome of {@link #transfer(ReadableByteChannel, WritableByteChannel)} for the entire content of
+     * <code>source</code>, without writing anything. The channel is not closed.
+     *
+     * @param source
+     *            the channel to read from, until the end of stream is reached
+     * @return the exact number of bytes that the transfer would write, and the number of matches it would replace
+     * @throws IOException
+     *             if the channel fails
+     */
+    public ReplacementPrediction predict(final ReadableByteChannel source) throws IOException {
+        Objects.requireNonNull(source, "A source channel must be specified");
+        locator.clear();
+        buffer.clear();
+        long length = 0;
+        long matches = 0;
+        while (source.read(buffer) != -1) {
+            matches += count(buffer, 0, buffer.position());
+            length += buffer.position();
+            buffer.clear();
+        }
+        locator.clear();
+        return prediction(length, matches);
+    }
+
+    /**
+     * As {@link #predict(ReadableByteChannel)}, but reading from the current position of the file to its end
+     * without changing the position. The same channel can then be passed straight to
+     * {@link #transfer(ReadableByteChannel, WritableByteChannel)}.
+     *
+     * @param source
+     *            the file to read from
+     * @return the exact number of bytes that the transfer would write, and the number of matches it would replace
+     * @throws IOException
+     *             if the channel fails
+     */
+    public ReplacementPrediction predict(final FileChannel source) throws IOException {
+        Objects.requireNonNull(source, "A source channel must be specified");
+        locator.clear();
+        buffer.clear();
+        long position = source.position();
+        long length = 0;
+        long matches = 0;
+        int count;
+        while ((count = source.read(buffer, position)) != -1) {
+            matches += count(buffer, 0, buffer.position());
+            length += buffer.position();
+            position += count;
+            buffer.clear();
+        }
+        locator.clear();
+        return prediction(length, matches);
+    }
+
+    /**
+     * As {@link #predict(ReadableByteChannel)}, but for the remaining content of a buffer such as a
+     * {@link java.nio.MappedByteBuffer}. The position of the buffer is left unchanged.
+     *
+     * @param source
+     *            the bytes to predict the transfer of
+     * @return the exact number of bytes that the transfer would write, and the number of matches it would replace
+     */
+    public ReplacementPrediction predict(final ByteBuffer source) {
+        Objects.requireNonNull(source, "A source buffer must be specified");
+        locator.clear();
+        long matches = count(source, source.position(), source.limit());
+        locator.clear();
+        return prediction(source.remaining(), matches);
+    }
+
+    /**
+     * Count the matches between the absolute indexes <code>start</code> and <code>end</code> of <code>buf</code>,
+     * carrying any partial match over from the previous call.
+     */
+    private long count(final ByteBuffer buf, final int start, final int end) {
+        long matches = 0;
+        int pos = start;
+        int found;
+        while ((found = locator.find(buf, pos, end)) != -1) {
+            locator.clear();
+            matches++;
+            pos = found;
+        }
+        return matches;
+    }
+
+    private ReplacementPrediction prediction(final long length, final long matches) {
+        return new ReplacementPrediction(length + growth(matches), matches);
+    }
+
+    /**
+     * How much longer the output is than the input as a result of replacing <code>matches</code> matches.
+     */
+    private long growth(final long matches) {
+        return matches * (replacement.capacity() - locator.getLength());
+    }
+
+    private static int write(final WritableByteChannel target, final ByteBuffer view, final int from, final int to)
+            throws IOException {
+        if (to <= from) {
+            return 0;
+        }
+        view.limit(to).position(from);
+        return writeFully(target, view);
+    }
+
+    private static int writeFully(final WritableByteChannel target, final ByteBuffer src) throws IOException {
+        int count = src.remaining();
+        while (src.hasRemaining()) {
+            target.write(src);
+        }
+        return count;
+    }
+}
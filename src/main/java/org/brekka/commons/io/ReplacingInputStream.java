@@ -0,0 +1,283 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Stream based byte sequence replacement as an {@link InputStream}. The byte level counterpart to
+ * {@link StringReplacingReader}, which avoids the need to decode and re-encode character data when the encoded form of
+ * the string to replace is known (see {@link ByteSequenceLocator}).
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacingInputStream extends FilterInputStream {
+    /**
+     * Default size of the buffer used to read from the underlying stream.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Locate the byte sequence being searched for from the bytes read from the underlying stream.
+     */
+    private final ByteSequenceLocator locator;
+
+    /**
+     * The bytes to replace any found occurrences with.
+     */
+    private final byte[] replaceWith;
+
+    /**
+     * Bytes read in bulk from the underlying stream. Bytes that may still be part of a match are retained at the start
+     * of the buffer when it is refilled, so matches that span reads are still located.
+     */
+    private byte[] buffer;
+
+    /**
+     * Position of the next byte in the buffer to be passed on to the caller.
+     */
+    private int emitPos;
+
+    /**
+     * Position of the next byte in the buffer to be passed to the locator.
+     */
+    private int scanPos;
+
+    /**
+     * The end of the bytes available in the buffer.
+     */
+    private int limit;
+
+    /**
+     * Where in the buffer the match that has just been located starts, or -1 if there is none.
+     */
+    private int matchStart = -1;
+
+    /**
+     * Position within <code>replaceWith</code> of the next byte waiting to be returned, or -1 if there is nothing
+     * pending.
+     */
+    private int pendingPos = -1;
+
+    /**
+     * Tracks when the end of stream is reached.
+     */
+    private boolean endOfStream = false;
+
+    /**
+     * Used by the single byte {@link #read()}.
+     */
+    private final byte[] single = new byte[1];
+
+    /**
+     * Updated with the work done, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
+    /**
+     * @param in
+     *            the source of data that will be filtered for replacement.
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     */
+    public ReplacingInputStream(final InputStream in, final ByteSequenceLocator locator, final byte[] replacement) {
+        this(in, locator, replacement, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param in
+     *            the source of data that will be filtered for replacement.
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param bufferSize
+     *            how many bytes to read from the underlying stream at a time.
+     */
+    public ReplacingInputStream(final InputStream in, final ByteSequenceLocator locator, final byte[] replacement,
+            final int bufferSize) {
+        this(in, locator, replacement, bufferSize, null);
+    }
+
+    /**
+     * @param in
+     *            the source of data that will be filtered for replacement.
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param bufferSize
+     *            how many bytes to read from the underlying stream at a time.
+     * @param statistics
+     *            if not null, updated with the work done by this stream.
+     */
+    public ReplacingInputStream(final InputStream in, final ByteSequenceLocator locator, final byte[] replacement,
+            final int bufferSize, final ReplacementStatistics statistics) {
+        super(Objects.requireNonNull(in, "An input stream must be specified"));
+        Objects.requireNonNull(locator, "A locator must be specified");
+        Objects.requireNonNull(replacement, "A replacement must be specified");
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be greater than zero");
+        }
+        this.locator = locator;
+        this.replaceWith = replacement.clone();
+        this.buffer = new byte[bufferSize];
+        this.statistics = statistics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int count;
+        while ((count = read(single, 0, 1)) == 0) {
+            // Keep trying until there is a byte or the end of the stream
+        }
+        return count == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        int pos = off;
+        int end = off + len;
+        while (pos < end) {
+            if (pendingPos >= 0) {
+                int count = Math.min(replaceWith.length - pendingPos, end - pos);
+                System.arraycopy(replaceWith, pendingPos, b, pos, count);
+                pos += count;
+                pendingPos += count;
+                if (pendingPos == replaceWith.length) {
+                    pendingPos = -1;
+                }
+                continue;
+            }
+            int committed = matchStart >= 0 ? matchStart : scanPos - locator.getCandidateLength();
+            if (emitPos < committed) {
+                int count = Math.min(committed - emitPos, end - pos);
+                System.arraycopy(buffer, emitPos, b, pos, count);
+                pos += count;
+                emitPos += count;
+            } else if (matchStart >= 0) {
+                // Everything before the match has been returned, now for the replacement
+                pendingPos = 0;
+                emitPos = scanPos;
+                matchStart = -1;
+                locator.clear();
+            } else if (scanPos < limit) {
+                long started = statistics != null ? System.nanoTime() : 0L;
+                int from = scanPos;
+                int found = locator.find(buffer, scanPos, limit - scanPos);
+                if (found == -1) {
+                    scanPos = limit;
+                } else {
+                    scanPos = found;
+                    matchStart = found - locator.getCandidateLength();
+                }
+                if (statistics != null) {
+                    statistics.record(scanPos - from, found != -1 ? 1 : 0,
+                            found != -1 ? replaceWith.length - locator.getCandidateLength() : 0,
+                            System.nanoTime() - started);
+                }
+            } else if (endOfStream) {
+                if (emitPos < scanPos) {
+                    // Anything still held back can no longer be part of a match
+                    int count = Math.min(scanPos - emitPos, end - pos);
+                    System.arraycopy(buffer, emitPos, b, pos, count);
+                    pos += count;
+                    emitPos += count;
+                    continue;
+                }
+                if (pos != off) {
+                    break;
+                }
+                return -1;
+            } else if (pos != off) {
+                // Avoid blocking on the underlying stream when there is already something to return.
+                break;
+            } else {
+                fill();
+            }
+        }
+        return pos - off;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] skipBuffer = new byte[(int) Math.min(n, DEFAULT_BUFFER_SIZE)];
+        long remaining = n;
+        while (remaining > 0) {
+            int count = read(skipBuffer, 0, (int) Math.min(remaining, skipBuffer.length));
+            if (count == -1) {
+                break;
+            }
+            remaining -= count;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public int available() throws IOException {
+        // Only what can be returned without further examination of the underlying stream is known.
+        int committed = matchStart >= 0 ? matchStart : scanPos - locator.getCandidateLength();
+        return (pendingPos >= 0 ? replaceWith.length - pendingPos : 0) + Math.max(0, committed - emitPos);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        // Not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Move any bytes that are still held back to the start of the buffer, then fill the rest from the underlying
+     * stream.
+     */
+    private void fill() throws IOException {
+        if (emitPos > 0) {
+            System.arraycopy(buffer, emitPos, buffer, 0, limit - emitPos);
+            scanPos -= emitPos;
+            limit -= emitPos;
+            emitPos = 0;
+        }
+        if (limit == buffer.length) {
+            // Only possible when the buffer is smaller than the bytes being located
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int count = in.read(buffer, limit, buffer.length - limit);
+        if (count == -1) {
+            endOfStream = true;
+        } else {
+            limit += count;
+        }
+    }
+}
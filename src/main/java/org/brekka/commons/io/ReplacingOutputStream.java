@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Stream based byte sequence replacement as an {@link OutputStream}. The byte level counterpart to
+ * {@link StringReplacingWriter}, which avoids the need to decode and re-encode character data when the encoded form of
+ * the string to replace is known (see {@link ByteSequenceLocator}). Runs of bytes that cannot be part of a match are
+ * passed to the underlying stream in bulk.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacingOutputStream extends FilterOutputStream {
+
+    /**
+     * The replacement for any byte sequences found.
+     */
+    private final byte[] replacement;
+
+    /**
+     * Locate the byte sequence being searched for from the bytes written.
+     */
+    private final ByteSequenceLocator locator;
+
+    /**
+     * Bytes from previous writes that have not yet been passed on as they may still be part of a match.
+     */
+    private byte[] held = new byte[16];
+
+    /**
+     * The number of bytes in <code>held</code>.
+     */
+    private int heldLength;
+
+    /**
+     * Used by the single byte {@link #write(int)}.
+     */
+    private final byte[] single = new byte[1];
+
+    /**
+     * Updated with the work done, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
+    /**
+     * Set once closed, after which closing again does nothing.
+     */
+    private boolean closed = false;
+
+    /**
+     * @param out
+     *            the destination for the data that has been filtered for replacement.
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     */
+    public ReplacingOutputStream(final OutputStream out, final ByteSequenceLocator locator, final byte[] replacement) {
+        this(out, locator, replacement, null);
+    }
+
+    /**
+     * @param out
+     *            the destination for the data that has been filtered for replacement.
+     * @param locator
+     *            used to locate the bytes to replace
+     * @param replacement
+     *            the bytes to replace any found occurrences with.
+     * @param statistics
+     *            if not null, updated with the work done by this stream.
+     */
+    public ReplacingOutputStream(final OutputStream out, final ByteSequenceLocator locator, final byte[] replacement,
+            final ReplacementStatistics statistics) {
+        super(Objects.requireNonNull(out, "An output stream must be specified"));
+        Objects.requireNonNull(locator, "A locator must be specified");
+        Objects.requireNonNull(replacement, "A replacement must be specified");
+        this.replacement = replacement.clone();
+        this.locator = locator;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    /**
+     * Locate matches within <code>b</code>, writing out everything that can no longer be part of a match. The held
+     * bytes logically precede <code>off</code>.
+     */
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        long started = statistics != null ? System.nanoTime() : 0L;
+        int end = off + len;
+        int heldStart = off - heldLength;
+        int runStart = heldStart;
+        int pos = off;
+        int matches = 0;
+        while (pos < end) {
+            int found = locator.find(b, pos, end - pos);
+            if (found == -1) {
+                break;
+            }
+            matches++;
+            writeRun(heldStart, b, off, runStart, found - locator.getCandidateLength());
+            out.write(replacement);
+            locator.clear();
+            runStart = found;
+            pos = found;
+        }
+        int committed = Math.max(runStart, end - locator.getCandidateLength());
+        writeRun(heldStart, b, off, runStart, committed);
+        hold(heldStart, b, off, committed, end);
+        if (statistics != null) {
+            statistics.record(len, matches, (long) matches * (replacement.length - locator.getLength()),
+                    System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.write(held, 0, heldLength);
+            heldLength = 0;
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write the bytes between the logical positions <code>from</code> and <code>to</code>, where those before
+     * <code>off</code> come from the held bytes.
+     */
+    private void writeRun(final int heldStart, final byte[] b, final int off, final int from, final int to)
+            throws IOException {
+        if (from < off) {
+            int heldTo = Math.min(to, off);
+            if (heldTo > from) {
+                out.write(held, from - heldStart, heldTo - from);
+            }
+        }
+        int bFrom = Math.max(from, off);
+        if (to > bFrom) {
+            out.write(b, bFrom, to - bFrom);
+        }
+    }
+
+    /**
+     * Retain the bytes between the logical positions <code>from</code> and <code>end</code> for the next write.
+     */
+    private void hold(final int heldStart, final byte[] b, final int off, final int from, final int end) {
+        int kept = 0;
+        if (from < off) {
+            kept = off - from;
+            System.arraycopy(held, from - heldStart, held, 0, kept);
+        }
+        int bFrom = Math.max(from, off);
+        int length = kept + end - bFrom;
+        if (length > held.length) {
+            held = Arrays.copyOf(held, Math.max(length, held.length * 2));
+        }
+        System.arraycopy(b, bFrom, held, kept, end - bFrom);
+        heldLength = length;
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A list of lines that is held in memory until the lines exceed a budget, at which point all of them are moved to a
+ * temporary file and any further lines are appended to that file. Lines in the file are UTF-8 encoded, each prefixed
+ * with its length, and are read back lazily as they are retrieved, either through positional reads or optionally
+ * through a memory mapping of the file. Iterating is cheaper than retrieving lines by index once they have spilled.
+ * <p>
+ * Once lines have been read back no more can be added. The list must be closed to remove the temporary file. Instances
+ * are not thread safe.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class SpillingLineList extends AbstractList<String> implements Closeable {
+
+    /**
+     * The file offset of every line at this interval is kept, the others are found by skipping forward.
+     */
+    private static final int INDEX_INTERVAL = 64;
+
+    /**
+     * Approximate heap used by a string beyond its characters.
+     */
+    private static final int STRING_OVERHEAD = 56;
+
+    /**
+     * Size of the buffer used to write to the file.
+     */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * How many bytes of lines may be held in memory before spilling.
+     */
+    private final long memoryBudget;
+
+    /**
+     * Where to create the temporary file, null for the default temporary directory.
+     */
+    private final Path directory;
+
+    /**
+     * Whether to read the lines back through a memory mapping.
+     */
+    private final boolean mapped;
+
+    /**
+     * The lines while they are held in memory, null once they have spilled.
+     */
+    private List<String> memory = new ArrayList<>();
+
+    /**
+     * Approximate heap used by <code>memory</code>.
+     */
+    private long memoryUsed;
+
+    /**
+     * The temporary file, null until the lines spill.
+     */
+    private Path file;
+
+    /**
+     * Writes to <code>file</code>, null when not writing.
+     */
+    private DataOutputStream out;
+
+    /**
+     * The number of bytes written to <code>file</code>.
+     */
+    private long written;
+
+    /**
+     * The number of lines written to <code>file</code>.
+     */
+    private int linesWritten;
+
+    /**
+     * The file offset of every line at <code>INDEX_INTERVAL</code>.
+     */
+    private long[] index = new long[16];
+
+    /**
+     * The number of lines.
+     */
+    private int size;
+
+    /**
+     * Reads the file back, null until the first read.
+     */
+    private FileChannel channel;
+
+    /**
+     * Mapping of the entire file, null if not mapped.
+     */
+    private MappedByteBuffer map;
+
+    /**
+     * Used for positional reads from <code>channel</code>.
+     */
+    private ByteBuffer readBuffer;
+
+    /**
+     * Set once lines have been read back, after which none can be added.
+     */
+    private boolean readOnly;
+
+    private boolean closed;
+
+    /**
+     * @param memoryBudget
+     *            the approximate number of bytes of heap the lines may use before they spill to a file in the default
+     *            temporary directory.
+     */
+    public SpillingLineList(final long memoryBudget) {
+        this(memoryBudget, null, false);
+    }
+
+    /**
+     * @param memoryBudget
+     *            the approximate number of bytes of heap the lines may use before they spill to a file.
+     * @param directory
+     *            where to create the temporary file, null for the default temporary directory.
+     * @param mapped
+     *            read the lines back through a memory mapping of the file (where it is no larger than 2GB) rather
+     *            than through positional reads. The mapping is released once it is garbage collected.
+     */
+    public SpillingLineList(final long memoryBudget, final Path directory, final boolean mapped) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("The memory budget cannot be negative");
+        }
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Append a line to the end of the list.
+     *
+     * @param line
+     *            the line to add
+     * @return true
+     * @throws UncheckedIOException
+     *             if the line cannot be written to the file
+     * @throws IllegalStateException
+     *             if lines have already been read back, or the list is closed
+     */
+    @Override
+    public boolean add(final String line) {
+        Objects.requireNonNull(line, "The line must be specified");
+        if (closed) {
+            throw new IllegalStateException("This list is closed");
+        }
+        if (readOnly) {
+            throw new IllegalStateException("Lines cannot be added once they have been read back");
+        }
+        try {
+            if (memory != null) {
+                long used = STRING_OVERHEAD + 2L * line.length();
+                memory.add(line);
+                memoryUsed += used;
+                if (memoryUsed > memoryBudget) {
+                    try {
+                        spill();
+                    } catch (IOException e) {
+                        // The lines stay on the heap, without the one that could not be added
+                        memory.remove(memory.size() - 1);
+                        memoryUsed -= used;
+                        throw e;
+                    }
+                }
+            } else {
+                write(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Determine whether the lines have been moved to a file.
+     *
+     * @return true if they have
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractList#get(int)
+     */
+    @Override
+    public String get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        checkOpen();
+        if (memory != null) {
+            return memory.get(index);
+        }
+        try {
+            prepareRead();
+            long pos = this.index[index / INDEX_INTERVAL];
+            for (int i = index % INDEX_INTERVAL; i > 0; i--) {
+                pos += 4 + readLength(pos);
+            }
+            return readLine(pos, readLength(pos));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.AbstractCollection#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Read the lines back in order, without consulting the index.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        checkOpen();
+        if (memory != null) {
+            return Collections.unmodifiableList(memory).iterator();
+        }
+        return new Iterator<String>() {
+            private long pos;
+
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public String next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                checkOpen();
+                try {
+                    prepareRead();
+                    int length = readLength(pos);
+                    String line = readLine(pos, length);
+                    pos += 4 + length;
+                    remaining--;
+                    return line;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Release the lines, deleting the temporary file if there is one.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        memory = null;
+        map = null;
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting lines and complete the file, if there is one.
+     */
+    void complete() throws IOException {
+        readOnly = true;
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /**
+     * Move the lines held in memory to the file. They are only released once all of them have been written, so if the
+     * file cannot be written it is deleted and the lines stay on the heap.
+     */
+    private void spill() throws IOException {
+        Path spillFile;
+        if (directory != null) {
+            spillFile = Files.createTempFile(directory, "lines", ".spill");
+        } else {
+            spillFile = Files.createTempFile("lines", ".spill");
+        }
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), WRITE_BUFFER_SIZE));
+            for (String line : memory) {
+                write(line);
+            }
+            // Surface any failure to write now rather than when the file is completed
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } catch (IOException ce) {
+                e.addSuppressed(ce);
+            } finally {
+                out = null;
+                written = 0;
+                linesWritten = 0;
+                Files.deleteIfExists(spillFile);
+            }
+            throw e;
+        }
+        file = spillFile;
+        memory = null;
+        memoryUsed = 0;
+    }
+
+    private void write(final String line) throws IOException {
+        if (linesWritten % INDEX_INTERVAL == 0) {
+            int slot = linesWritten / INDEX_INTERVAL;
+            if (slot == index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+            index[slot] = written;
+        }
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        written += 4 + bytes.length;
+        linesWritten++;
+    }
+
+    private void prepareRead() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        complete();
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (mapped && written <= Integer.MAX_VALUE) {
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, written);
+        } else {
+            readBuffer = ByteBuffer.allocate(256);
+        }
+    }
+
+    private int readLength(final long pos) throws IOException {
+        if (map != null) {
+            return map.getInt((int) pos);
+        }
+        return read(pos, 4).getInt();
+    }
+
+    private String readLine(final long pos, final int length) throws IOException {
+        if (map != null) {
+            ByteBuffer view = map.duplicate();
+            view.position((int) pos + 4).limit((int) pos + 4 + length);
+            byte[] bytes = new byte[length];
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        ByteBuffer buf = read(pos + 4, length);
+        return new String(buf.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read <code>length</code> bytes from the file at <code>pos</code> into the read buffer.
+     */
+    private ByteBuffer read(final long pos, final int length) throws IOException {
+        if (readBuffer.capacity() < length) {
+            readBuffer = ByteBuffer.allocate(Math.max(length, readBuffer.capacity() * 2));
+        }
+        readBuffer.clear().limit(length);
+        long at = pos;
+        while (readBuffer.hasRemaining()) {
+            int count = channel.read(readBuffer, at);
+            if (count == -1) {
+                throw new EOFException("Unexpected end of " + file);
+            }
+            at += count;
+        }
+        readBuffer.flip();
+        return readBuffer;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("This list is closed");
+        }
+    }
+}
@@ -17,46 +17,141 @@
 package org.brekka.commons.io;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 
 
 /**
- * Collect the output written to this writer into a list of strings.
+ * Collect the output written to this writer into a list of strings. Alternatively each line can be handed on as soon as
+ * it is complete, either to a {@link Consumer} or to a {@link BlockingQueue}, in which case the lines are not retained
+ * and the memory used by the writer does not grow with its output.
+ * <p>
+ * Lines are terminated by LF, so may also be terminated by CRLF. Any CR is discarded, without ending the line.
  *
  * @author Andrew Taylor (andrew@brekka.org)
  */
 public class StringListWriter extends Writer {
 
-    private final List<String> list = new ArrayList<>();
+    /**
+     * Where each completed line is sent.
+     */
+    private final LineSink sink;
 
-    private StringBuffer line = new StringBuffer();
+    /**
+     * The line currently being written, reused for every line.
+     */
+    private final StringBuilder line = new StringBuilder();
 
     private boolean closed = false;
 
+    /**
+     * Collect the lines into a list, available from {@link #toList()}.
+     */
+    public StringListWriter() {
+        this.sink = new ListSink();
+    }
+
+    /**
+     * Collect the lines into <code>lines</code>, which stores them far more compactly than a list of strings. The lines
+     * are available from {@link #toCharSequenceList()}, or as strings created on demand from {@link #toList()}.
+     *
+     * @param lines
+     *            the list to append the lines to
+     */
+    public StringListWriter(final CompactLineList lines) {
+        Objects.requireNonNull(lines, "A line list must be specified");
+        this.sink = new CompactSink(lines);
+    }
+
+    /**
+     * Collect the lines into <code>lines</code>, which moves them to a temporary file should they exceed its memory
+     * budget. {@link #toList()} returns <code>lines</code>, which should be closed once finished with to remove the
+     * file.
+     *
+     * @param lines
+     *            the list to append the lines to
+     */
+    public StringListWriter(final SpillingLineList lines) {
+        Objects.requireNonNull(lines, "A line list must be specified");
+        this.sink = new SpillingSink(lines);
+    }
+
+    /**
+     * Pass each line to <code>consumer</code> as soon as it is complete. The {@link CharSequence} passed is reused for
+     * subsequent lines, so must be copied if it is to be kept beyond the call.
+     *
+     * @param consumer
+     *            receives each line, without its terminator
+     */
+    public StringListWriter(final Consumer<? super CharSequence> consumer) {
+        Objects.requireNonNull(consumer, "A consumer must be specified");
+        this.sink = new ConsumerSink(consumer);
+    }
+
+    /**
+     * Put each line onto <code>queue</code> as soon as it is complete, blocking while the queue is full.
+     *
+     * @param queue
+     *            receives each line, without its terminator
+     */
+    public StringListWriter(final BlockingQueue<? super String> queue) {
+        this(queue, null);
+    }
+
+    /**
+     * Put each line onto <code>queue</code> as soon as it is complete, blocking while the queue is full.
+     *
+     * @param queue
+     *            receives each line, without its terminator
+     * @param endMarker
+     *            if not null, put onto the queue when this writer is closed so that whatever is taking from the queue
+     *            knows there will be no more lines. Compare by identity.
+     */
+    public StringListWriter(final BlockingQueue<? super String> queue, final String endMarker) {
+        Objects.requireNonNull(queue, "A queue must be specified");
+        this.sink = new QueueSink(queue, endMarker);
+    }
+
     /* (non-Javadoc)
      * @see java.io.Writer#write(char[], int, int)
      */
     @Override
     public void write(final char[] cbuf, final int off, final int len) throws IOException {
-        if (this.closed) {
-            throw new IllegalStateException("This writer is closed");
-        }
-        for (int i = off; i < off + len; i++) {
-            char c = cbuf[i];
-            if (c == '\r') {
-                // Ignore
-                continue;
-            }
-            if (c == '\n') {
-                this.list.add(this.line.toString());
-                this.line = new StringBuffer();
-            } else {
-                this.line.append(c);
-            }
-        }
+        process(cbuf, off, off + len);
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.Writer#write(java.lang.String, int, int)
+     */
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        process(str, off, off + len);
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.Writer#append(java.lang.CharSequence)
+     */
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        CharSequence seq = csq != null ? csq : "null";
+        process(seq, 0, seq.length());
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.Writer#append(java.lang.CharSequence, int, int)
+     */
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        process(csq != null ? csq : "null", start, end);
+        return this;
     }
 
     /* (non-Javadoc)
@@ -75,22 +170,238 @@ public class StringListWriter extends Writer {
         if (this.closed) {
             return;
         }
-        if (this.line.length() > 0) {
-            this.list.add(this.line.toString());
-        }
         this.closed = true;
+        try {
+            if (this.line.length() > 0) {
+                this.sink.line(this.line);
+                this.line.setLength(0);
+            }
+            this.sink.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
      * @return the list
+     * @throws IllegalStateException
+     *             if the lines were passed on rather than collected.
      */
+    @SuppressWarnings("unchecked")
     public List<String> toList() {
+        List<? extends CharSequence> lines = toCharSequenceList();
+        if (lines.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (lines instanceof CompactLineList) {
+            return ((CompactLineList) lines).asStrings();
+        }
+        return (List<String>) lines;
+    }
+
+    /**
+     * The lines without necessarily converting them to strings first.
+     *
+     * @return the list
+     * @throws IllegalStateException
+     *             if the lines were passed on rather than collected.
+     */
+    public List<? extends CharSequence> toCharSequenceList() {
         // Make sure we are closed
         close();
-        if (this.list.isEmpty()) {
-            return Collections.emptyList();
+        List<? extends CharSequence> lines = this.sink.lines();
+        if (lines == null) {
+            throw new IllegalStateException("The lines have been passed on rather than collected");
         }
-        return this.list;
+        return lines;
     }
 
+    /**
+     * As {@link #process(CharSequence, int, int)}, scanning the array directly.
+     */
+    private void process(final char[] cbuf, final int start, final int end) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("This writer is closed");
+        }
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            char c = cbuf[i];
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            this.line.append(cbuf, runStart, i - runStart);
+            if (c == '\n') {
+                this.sink.line(this.line);
+                this.line.setLength(0);
+            }
+            runStart = i + 1;
+        }
+        this.line.append(cbuf, runStart, end - runStart);
+    }
+
+    /**
+     * Split the characters into lines, appending each run between terminators to the current line in one go. A line
+     * is terminated by LF, and CR is discarded wherever it appears.
+     */
+    private void process(final CharSequence seq, final int start, final int end) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("This writer is closed");
+        }
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            char c = seq.charAt(i);
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            CharSequences.append(this.line, seq, runStart, i);
+            if (c == '\n') {
+                this.sink.line(this.line);
+                this.line.setLength(0);
+            }
+            runStart = i + 1;
+        }
+        CharSequences.append(this.line, seq, runStart, end);
+    }
+
+    /**
+     * Collects each line as a string.
+     */
+    private static final class ListSink implements LineSink {
+        private final List<String> list = new ArrayList<>();
+
+        @Override
+        public void line(final CharSequence line) {
+            list.add(line.toString());
+        }
+
+        @Override
+        public void close() {
+            // Nothing to complete
+        }
+
+        @Override
+        public List<String> lines() {
+            return list;
+        }
+    }
+
+    /**
+     * Collects each line into the arena of a {@link CompactLineList}.
+     */
+    private static final class CompactSink implements LineSink {
+        private final CompactLineList list;
+
+        CompactSink(final CompactLineList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void line(final CharSequence line) {
+            list.add(line);
+        }
+
+        @Override
+        public void close() {
+            list.trimToSize();
+        }
+
+        @Override
+        public List<CharSequence> lines() {
+            return list;
+        }
+    }
+
+    /**
+     * Collects each line into a list that may spill to disk.
+     */
+    private static final class SpillingSink implements LineSink {
+        private final SpillingLineList list;
+
+        SpillingSink(final SpillingLineList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void line(final CharSequence line) {
+            list.add(line.toString());
+        }
+
+        @Override
+        public void close() throws IOException {
+            list.complete();
+        }
+
+        @Override
+        public List<String> lines() {
+            return list;
+        }
+    }
+
+    /**
+     * Passes each line to a consumer.
+     */
+    private static final class ConsumerSink implements LineSink {
+        private final Consumer<? super CharSequence> consumer;
+
+        ConsumerSink(final Consumer<? super CharSequence> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void line(final CharSequence line) {
+            consumer.accept(line);
+        }
+
+        @Override
+        public void close() {
+            // Nothing to complete
+        }
+
+        @Override
+        public List<? extends CharSequence> lines() {
+            return null;
+        }
+    }
+
+    /**
+     * Puts each line onto a queue, waiting for space to become available.
+     */
+    private static final class QueueSink implements LineSink {
+        private final BlockingQueue<? super String> queue;
+
+        private final String endMarker;
+
+        QueueSink(final BlockingQueue<? super String> queue, final String endMarker) {
+            this.queue = queue;
+            this.endMarker = endMarker;
+        }
+
+        @Override
+        public void line(final CharSequence line) throws IOException {
+            put(line.toString());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (endMarker != null) {
+                put(endMarker);
+            }
+        }
+
+        @Override
+        public List<? extends CharSequence> lines() {
+            return null;
+        }
+
+        private void put(final String value) throws IOException {
+            try {
+                queue.put(value);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException ex = new InterruptedIOException("Interrupted waiting for space in the queue");
+                ex.initCause(e);
+                throw ex;
+            }
+        }
+    }
 }
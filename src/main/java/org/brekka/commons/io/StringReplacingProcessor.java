@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Replacement applied to a stream of {@link CharBuffer} chunks without ever blocking, for use as a stage of a reactive
+ * or otherwise non-blocking pipeline. Matches that span chunks are still located, the characters at the end of a chunk
+ * that may be the start of a match being held back until the next chunk arrives.
+ * <p>
+ * Every chunk passed to {@link #process(CharBuffer)} produces exactly one chunk of output (which may be empty), plus
+ * one more from {@link #finish()} at the end of the stream. Adapting this to a publisher/subscriber style processor is
+ * therefore a matter of mapping each item, passing demand upstream unchanged, and emitting the result of
+ * {@link #finish()} on completion.
+ * <p>
+ * Instances are not thread safe, but since the chunks of a stream are delivered serially that is not normally an issue.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class StringReplacingProcessor {
+
+    /**
+     * Collects the output of <code>replacer</code>.
+     */
+    private final ChunkWriter output = new ChunkWriter();
+
+    /**
+     * Performs the replacement, writing to <code>output</code>.
+     */
+    private final Writer replacer;
+
+    private boolean finished = false;
+
+    /**
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     */
+    public StringReplacingProcessor(final CharSequenceLocator locator, final String replacement) {
+        this(locator, replacement, null);
+    }
+
+    /**
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param statistics
+     *            if not null, updated with the work done.
+     */
+    public StringReplacingProcessor(final CharSequenceLocator locator, final String replacement,
+            final ReplacementStatistics statistics) {
+        this.replacer = new StringReplacingWriter(output, locator, replacement, statistics);
+    }
+
+    /**
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     */
+    public StringReplacingProcessor(final ReplacementDictionary dictionary) {
+        this(dictionary, null);
+    }
+
+    /**
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     * @param statistics
+     *            if not null, updated with the work done.
+     */
+    public StringReplacingProcessor(final ReplacementDictionary dictionary, final ReplacementStatistics statistics) {
+        this.replacer = new MultiStringReplacingWriter(output, dictionary, statistics);
+    }
+
+    /**
+     * Apply the replacement to the next chunk of the stream. The chunk is consumed (its position moved to its limit)
+     * and no reference to it is retained.
+     *
+     * @param chunk
+     *            the next chunk of input
+     * @return the output that can be released so far, which is never the same buffer as <code>chunk</code>.
+     * @throws IllegalStateException
+     *             if {@link #finish()} has already been called
+     */
+    public CharBuffer process(final CharBuffer chunk) {
+        Objects.requireNonNull(chunk, "A chunk must be specified");
+        if (finished) {
+            throw new IllegalStateException("This processor has finished");
+        }
+        try {
+            replacer.append(chunk);
+        } catch (IOException e) {
+            // Nothing here performs I/O
+            throw new UncheckedIOException(e);
+        }
+        chunk.position(chunk.limit());
+        return output.take();
+    }
+
+    /**
+     * Mark the end of the stream, releasing any characters that were being held back.
+     *
+     * @return the final output
+     */
+    public CharBuffer finish() {
+        if (!finished) {
+            finished = true;
+            try {
+                replacer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return output.take();
+    }
+
+    /**
+     * Accumulates characters until they are taken as a chunk.
+     */
+    private static final class ChunkWriter extends Writer {
+        /**
+         * Initial size of each chunk, which grows as needed to hold the output of a single call.
+         */
+        private static final int INITIAL_CAPACITY = 256;
+
+        /**
+         * The chunk being accumulated, null until something is written after the last was taken.
+         */
+        private char[] buffer;
+
+        private int count;
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) {
+            ensureCapacity(len);
+            System.arraycopy(cbuf, off, buffer, count, len);
+            count += len;
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) {
+            ensureCapacity(len);
+            str.getChars(off, off + len, buffer, count);
+            count += len;
+        }
+
+        @Override
+        public Writer append(final CharSequence csq, final int start, final int end) {
+            CharSequence seq = csq != null ? csq : "null";
+            ensureCapacity(end - start);
+            CharSequences.getChars(seq, start, end, buffer, count);
+            count += end - start;
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            // Nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+
+        /**
+         * Hand over the characters accumulated so far. The array goes with them, so the next is only allocated once
+         * there is something to put in it, and then at the initial size rather than that of the largest chunk so far.
+         */
+        CharBuffer take() {
+            if (count == 0) {
+                return CharBuffer.allocate(0);
+            }
+            CharBuffer chunk = CharBuffer.wrap(buffer, 0, count);
+            buffer = null;
+            count = 0;
+            return chunk;
+        }
+
+        private void ensureCapacity(final int len) {
+            if (buffer == null) {
+                buffer = new char[Math.max(len, INITIAL_CAPACITY)];
+            } else if (count + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(count + len, buffer.length * 2));
+            }
+        }
+    }
+}
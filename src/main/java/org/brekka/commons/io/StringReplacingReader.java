@@ -19,6 +19,7 @@ package org.brekka.commons.io;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -27,32 +28,68 @@ import java.util.Objects;
  * @author Andrew Taylor (andrew@brekka.org)
  */
 public class StringReplacingReader extends Reader {
+    /**
+     * Default size of the buffer used to read from the underlying reader.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
     /**
      * The reader to obtain the character data from
      */
     private final Reader reader;
 
     /**
-     * Locate the string being searched for from the characters being fed in one-by-one.
+     * Locate the string being searched for from the characters read from the underlying reader.
      */
     private final CharSequenceLocator locator;
 
     /**
-     * Template {@link CharBuffer} of the string to replace any found occurrences with.
+     * The string to replace any found occurrences with.
+     */
+    private final char[] replaceWith;
+
+    /**
+     * Characters read in bulk from the underlying reader. Characters that may still be part of a match are retained
+     * at the start of the buffer when it is refilled, so matches that span reads are still located.
+     */
+    private char[] buffer;
+
+    /**
+     * Position of the next character in the buffer to be passed on to the caller.
+     */
+    private int emitPos;
+
+    /**
+     * Position of the next character in the buffer to be passed to the locator.
      */
-    private final CharBuffer replaceWith;
+    private int scanPos;
 
     /**
-     * Buffer of characters waiting to be written (in the event that they won't fit into the current
-     * character buffer).
+     * The end of the characters available in the buffer.
      */
-    private CharBuffer pending;
+    private int limit;
+
+    /**
+     * Where in the buffer the match that has just been located starts, or -1 if there is none.
+     */
+    private int matchStart = -1;
+
+    /**
+     * Position within <code>replaceWith</code> of the next character waiting to be written (in the event that the
+     * replacement won't fit into the current character buffer), or -1 if there is nothing pending.
+     */
+    private int pendingPos = -1;
 
     /**
      * Tracks when the end of stream is reached.
      */
     private boolean endOfStream = false;
 
+    /**
+     * Updated with the work done, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
     /**
      * @param reader
      *            the source of character data that will be filtered for replacement.
@@ -62,53 +99,122 @@ public class StringReplacingReader extends Reader {
      *            the string to replace any found occurrences with.
      */
     public StringReplacingReader(final Reader reader, final CharSequenceLocator locator, final String replacement) {
+        this(reader, locator, replacement, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param reader
+     *            the source of character data that will be filtered for replacement.
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param bufferSize
+     *            how many characters to read from the underlying reader at a time.
+     */
+    public StringReplacingReader(final Reader reader, final CharSequenceLocator locator, final String replacement,
+            final int bufferSize) {
+        this(reader, locator, replacement, bufferSize, null);
+    }
+
+    /**
+     * @param reader
+     *            the source of character data that will be filtered for replacement.
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param bufferSize
+     *            how many characters to read from the underlying reader at a time.
+     * @param statistics
+     *            if not null, updated with the work done by this reader.
+     */
+    public StringReplacingReader(final Reader reader, final CharSequenceLocator locator, final String replacement,
+            final int bufferSize, final ReplacementStatistics statistics) {
+        this(reader, locator, Objects.requireNonNull(replacement, "A replacement must be specified").toCharArray(),
+                bufferSize, statistics);
+    }
+
+    /**
+     * @param replacement
+     *            shared rather than copied, so must not be modified.
+     */
+    StringReplacingReader(final Reader reader, final CharSequenceLocator locator, final char[] replacement,
+            final int bufferSize, final ReplacementStatistics statistics) {
         Objects.requireNonNull(reader, "A reader must be specified");
         Objects.requireNonNull(locator, "A locator must be specified");
-        Objects.requireNonNull(replacement, "A replacement must be specified");
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be greater than zero");
+        }
         this.reader = reader;
         this.locator = locator;
-        this.replaceWith = CharBuffer.wrap(replacement.toCharArray());
+        this.replaceWith = replacement;
+        this.buffer = new char[bufferSize];
+        this.statistics = statistics;
     }
 
     /**
-     * Read directly into a {@link CharBuffer}. This is the most allocation-efficient method as the only allocation will
-     * be when the tail is appended.
+     * Read directly into a {@link CharBuffer}. Characters are read from the underlying reader in blocks, with runs of
+     * characters that are not part of a match copied to the target in bulk.
      */
     @Override
     public int read(final CharBuffer target) throws IOException {
         int remaining = target.remaining();
         while (target.hasRemaining()) {
-            if (pending != null) {
-                while (target.hasRemaining() && pending.hasRemaining()) {
-                    target.put(pending.get());
+            if (pendingPos >= 0) {
+                int count = Math.min(replaceWith.length - pendingPos, target.remaining());
+                target.put(replaceWith, pendingPos, count);
+                pendingPos += count;
+                if (pendingPos == replaceWith.length) {
+                    pendingPos = -1;
                 }
-                if (!pending.hasRemaining()) {
-                    pending.rewind();
-                    pending = null;
+                continue;
+            }
+            int committed = matchStart >= 0 ? matchStart : scanPos - locator.getCandidateLength();
+            if (emitPos < committed) {
+                int count = Math.min(committed - emitPos, target.remaining());
+                target.put(buffer, emitPos, count);
+                emitPos += count;
+            } else if (matchStart >= 0) {
+                // Everything before the match has been written, now for the replacement
+                pendingPos = 0;
+                emitPos = scanPos;
+                matchStart = -1;
+                locator.clear();
+            } else if (scanPos < limit) {
+                long started = statistics != null ? System.nanoTime() : 0L;
+                int from = scanPos;
+                int found = locator.find(buffer, scanPos, limit - scanPos);
+                if (found == -1) {
+                    scanPos = limit;
+                } else {
+                    scanPos = found;
+                    matchStart = found - locator.getCandidateLength();
+                }
+                if (statistics != null) {
+                    // Timed per scan of the buffer rather than per call, so as not to include reads from the source
+                    statistics.record(scanPos - from, found != -1 ? 1 : 0,
+                            found != -1 ? replaceWith.length - locator.getCandidateLength() : 0,
+                            System.nanoTime() - started);
                 }
             } else if (endOfStream) {
-                if (remaining != target.remaining()){
+                if (emitPos < scanPos) {
+                    // Anything still held back can no longer be part of a match
+                    int count = Math.min(scanPos - emitPos, target.remaining());
+                    target.put(buffer, emitPos, count);
+                    emitPos += count;
+                    continue;
+                }
+                if (remaining != target.remaining()) {
                     // Some data has been added during this invocation, need to return that count.
                     break;
                 }
                 return -1;
+            } else if (remaining != target.remaining()) {
+                // Avoid blocking on the underlying reader when there is already something to return.
+                break;
             } else {
-                int c = reader.read();
-                if (c == -1) {
-                    pending = CharBuffer.wrap(locator.purge());
-                    endOfStream = true;
-                    continue;
-                }
-                boolean replacing = locator.isReplacing();
-                char displaced = locator.append((char) c);
-                if (replacing) {
-                    target.append(displaced);
-                }
-                if (locator.isFound()) {
-                    // Will be consumed, need to return a duplicate.
-                    pending = replaceWith;
-                    locator.clear();
-                }
+                fill();
             }
         }
         return remaining - target.remaining();
@@ -126,4 +232,27 @@ public class StringReplacingReader extends Reader {
     public void close() throws IOException {
         reader.close();
     }
+
+    /**
+     * Move any characters that are still held back to the start of the buffer, then fill the rest from the underlying
+     * reader.
+     */
+    private void fill() throws IOException {
+        if (emitPos > 0) {
+            System.arraycopy(buffer, emitPos, buffer, 0, limit - emitPos);
+            scanPos -= emitPos;
+            limit -= emitPos;
+            emitPos = 0;
+        }
+        if (limit == buffer.length) {
+            // Only possible when the buffer is smaller than the string being located
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int count = reader.read(buffer, limit, buffer.length - limit);
+        if (count == -1) {
+            endOfStream = true;
+        } else {
+            limit += count;
+        }
+    }
 }
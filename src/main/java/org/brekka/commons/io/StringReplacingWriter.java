@@ -18,11 +18,12 @@ package org.brekka.commons.io;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
- * Stream based {@link String} replacement as a {@link Writer}. It is recommended that the {@link Writer} be buffered as
- * this implementation calls the single-character {@link Writer#write(int)} method.
+ * Stream based {@link String} replacement as a {@link Writer}. Runs of characters that cannot be part of a match are
+ * passed to the underlying writer in bulk, so there is no need to buffer it on account of this class.
  *
  * @author Andrew Taylor (andrew@brekka.org)
  */
@@ -39,10 +40,25 @@ public class StringReplacingWriter extends Writer {
     private final char[] replacement;
 
     /**
-     * Locate the string being searched for from the characters being fed in one-by-one.
+     * Locate the string being searched for from the characters written.
      */
     private final CharSequenceLocator locator;
 
+    /**
+     * Characters from previous writes that have not yet been passed on as they may still be part of a match.
+     */
+    private char[] held = new char[16];
+
+    /**
+     * The number of characters in <code>held</code>.
+     */
+    private int heldLength;
+
+    /**
+     * Updated with the work done, may be null.
+     */
+    private final ReplacementStatistics statistics;
+
     /**
      * @param writer
      *            the destination for the character data that has been filtered for replacement.
@@ -52,28 +68,61 @@ public class StringReplacingWriter extends Writer {
      *            the string to replace any found occurrences with.
      */
     public StringReplacingWriter(final Writer writer, final CharSequenceLocator locator, final String replacement) {
+        this(writer, locator, replacement, null);
+    }
+
+    /**
+     * @param writer
+     *            the destination for the character data that has been filtered for replacement.
+     * @param locator
+     *            used to locate the string to replace
+     * @param replacement
+     *            the string to replace any found occurrences with.
+     * @param statistics
+     *            if not null, updated with the work done by this writer.
+     */
+    public StringReplacingWriter(final Writer writer, final CharSequenceLocator locator, final String replacement,
+            final ReplacementStatistics statistics) {
+        this(writer, locator, Objects.requireNonNull(replacement, "A replacement must be specified").toCharArray(),
+                statistics);
+    }
+
+    /**
+     * @param replacement
+     *            shared rather than copied, so must not be modified.
+     */
+    StringReplacingWriter(final Writer writer, final CharSequenceLocator locator, final char[] replacement,
+            final ReplacementStatistics statistics) {
         Objects.requireNonNull(writer, "A writer must be specified");
         Objects.requireNonNull(locator, "A locator must be specified");
-        Objects.requireNonNull(replacement, "A replacement must be specified");
         this.writer = writer;
-        this.replacement = replacement.toCharArray(); // Won't change
+        this.replacement = replacement; // Won't change
         this.locator = locator;
+        this.statistics = statistics;
     }
 
 
     @Override
     public void write(final char[] cbuf, final int off, final int len) throws IOException {
-        for (int i = off; i < (off + len); i++) {
-            boolean replacing = locator.isReplacing();
-            char displaced = locator.append(cbuf[i]);
-            if (replacing) {
-                writer.write(displaced);
-            }
-            if (locator.isFound()) {
-                writer.write(replacement, 0, replacement.length);
-                locator.clear();
-            }
-        }
+        process(cbuf, null, off, off + len);
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        process(null, str, off, off + len);
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        CharSequence seq = csq != null ? csq : "null";
+        process(null, seq, 0, seq.length());
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        process(null, csq != null ? csq : "null", start, end);
+        return this;
     }
 
     @Override
@@ -83,7 +132,88 @@ public class StringReplacingWriter extends Writer {
 
     @Override
     public void close() throws IOException {
-        writer.write(locator.purge());
+        writer.write(held, 0, heldLength);
+        heldLength = 0;
         writer.close();
     }
+
+    /**
+     * Locate matches within either <code>cbuf</code> or <code>seq</code>, writing out everything that can no longer be
+     * part of a match. The held characters logically precede <code>start</code>. Arrays are searched and written
+     * directly, rather than through a {@link CharSequence} view.
+     */
+    private void process(final char[] cbuf, final CharSequence seq, final int start, final int end)
+            throws IOException {
+        long started = statistics != null ? System.nanoTime() : 0L;
+        int heldStart = start - heldLength;
+        int runStart = heldStart;
+        int pos = start;
+        int matches = 0;
+        long growth = 0;
+        while (pos < end) {
+            int found = cbuf != null ? locator.find(cbuf, pos, end - pos) : locator.find(seq, pos, end);
+            if (found == -1) {
+                break;
+            }
+            matches++;
+            growth += replacement.length - locator.getCandidateLength();
+            writeRun(heldStart, cbuf, seq, start, runStart, found - locator.getCandidateLength());
+            writer.write(replacement, 0, replacement.length);
+            locator.clear();
+            runStart = found;
+            pos = found;
+        }
+        int committed = Math.max(runStart, end - locator.getCandidateLength());
+        writeRun(heldStart, cbuf, seq, start, runStart, committed);
+        hold(heldStart, cbuf, seq, start, committed, end);
+        if (statistics != null) {
+            statistics.record(end - start, matches, growth, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Write the characters between the logical positions <code>from</code> and <code>to</code>, where those before
+     * <code>start</code> come from the held characters.
+     */
+    private void writeRun(final int heldStart, final char[] cbuf, final CharSequence seq, final int start,
+            final int from, final int to) throws IOException {
+        if (from < start) {
+            int heldTo = Math.min(to, start);
+            if (heldTo > from) {
+                writer.write(held, from - heldStart, heldTo - from);
+            }
+        }
+        int seqFrom = Math.max(from, start);
+        if (to <= seqFrom) {
+            return;
+        }
+        if (cbuf != null) {
+            writer.write(cbuf, seqFrom, to - seqFrom);
+        } else {
+            CharSequences.write(writer, seq, seqFrom, to);
+        }
+    }
+
+    /**
+     * Retain the characters between the logical positions <code>from</code> and <code>end</code> for the next write.
+     */
+    private void hold(final int heldStart, final char[] cbuf, final CharSequence seq, final int start, final int from,
+            final int end) {
+        int kept = 0;
+        if (from < start) {
+            kept = start - from;
+            System.arraycopy(held, from - heldStart, held, 0, kept);
+        }
+        int seqFrom = Math.max(from, start);
+        int length = kept + end - seqFrom;
+        if (length > held.length) {
+            held = Arrays.copyOf(held, Math.max(length, held.length * 2));
+        }
+        if (cbuf != null) {
+            System.arraycopy(cbuf, seqFrom, held, kept, end - seqFrom);
+        } else {
+            CharSequences.getChars(seq, seqFrom, end, held, kept);
+        }
+        heldLength = length;
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import javax.servlet.ServletOutputStream;
+
+/**
+ * Decodes the bytes written to it and passes the resulting characters on to a {@link Writer}. Bytes of a character
+ * that is split across writes are held until the rest of it arrives, and up to a buffer's worth of bytes are held
+ * until the stream is flushed.
+ * <p>
+ * Bytes that cannot be decoded are never altered. Instead, once the writer has been closed to release whatever it
+ * holds, they and everything written after them are passed straight through to the raw stream undecoded.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+class DecodingServletOutputStream extends ServletOutputStream {
+
+    /**
+     * Size of the byte and character buffers.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The writer that receives the decoded characters.
+     */
+    private final Writer writer;
+
+    /**
+     * Where the bytes go once they can no longer be decoded, which the writer must also ultimately write to.
+     */
+    private final OutputStream raw;
+
+    /**
+     * Decodes the bytes written, reporting any that are malformed.
+     */
+    private final CharsetDecoder decoder;
+
+    /**
+     * Bytes waiting to be decoded.
+     */
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Characters waiting to be passed to the writer.
+     */
+    private final CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Set once the stream has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Set once bytes that cannot be decoded have been encountered, after which everything goes to <code>raw</code>.
+     */
+    private boolean passThrough;
+
+    /**
+     * @param writer
+     *            the writer that receives the decoded characters, closed along with this stream. Closing it must
+     *            flush its output to <code>raw</code> without closing that.
+     * @param charset
+     *            the encoding of the bytes written.
+     * @param raw
+     *            the stream to pass the bytes through to undecoded, should any be malformed. Never closed.
+     */
+    DecodingServletOutputStream(final Writer writer, final Charset charset, final OutputStream raw) {
+        this.writer = writer;
+        this.raw = raw;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        if (passThrough) {
+            raw.write(b);
+            return;
+        }
+        if (!in.hasRemaining()) {
+            decode(false);
+        }
+        in.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        int pos = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (passThrough) {
+                raw.write(b, pos, remaining);
+                return;
+            }
+            if (!in.hasRemaining()) {
+                decode(false);
+                continue;
+            }
+            int count = Math.min(in.remaining(), remaining);
+            in.put(b, pos, count);
+            pos += count;
+            remaining -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (passThrough) {
+            raw.flush();
+            return;
+        }
+        decode(false);
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!passThrough) {
+            // May switch to pass through, should the last bytes be incomplete
+            decode(true);
+        }
+        if (passThrough) {
+            raw.flush();
+        } else {
+            writer.close();
+        }
+    }
+
+    /**
+     * Decode as many of the waiting bytes as possible, passing the characters on to the writer. Switches to pass
+     * through on reaching bytes that cannot be decoded.
+     */
+    private void decode(final boolean endOfInput) throws IOException {
+        in.flip();
+        CoderResult result;
+        do {
+            result = decoder.decode(in, out, endOfInput);
+            drain();
+        } while (result.isOverflow());
+        if (result.isError()) {
+            // Release what the writer holds, so that what follows is written after it
+            passThrough = true;
+            writer.close();
+            raw.write(in.array(), in.position(), in.remaining());
+            in.clear();
+            return;
+        }
+        in.compact();
+        if (endOfInput) {
+            do {
+                result = decoder.flush(out);
+                drain();
+            } while (result.isOverflow());
+        }
+    }
+
+    private void drain() throws IOException {
+        if (out.position() > 0) {
+            writer.write(out.array(), 0, out.position());
+            out.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("This stream is closed");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.servlet;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.brekka.commons.io.ReplacementDictionary;
+
+/**
+ * Filter that replaces strings within text responses as they stream to the client, see
+ * {@link ReplacingResponseWrapper}. The strings can be supplied directly as a {@link ReplacementDictionary}, or
+ * declared as filter init parameters, where the name of each parameter is a string to locate and its value the
+ * replacement.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacingResponseFilter implements Filter {
+
+    /**
+     * The strings to locate and their replacements. Null until initialised when configured by init parameters.
+     */
+    private ReplacementDictionary dictionary;
+
+    /**
+     * Configure from the filter init parameters.
+     */
+    public ReplacingResponseFilter() {
+    }
+
+    /**
+     * @param dictionary
+     *            the strings to locate and their replacements, init parameters are then ignored.
+     */
+    public ReplacingResponseFilter(final ReplacementDictionary dictionary) {
+        Objects.requireNonNull(dictionary, "A dictionary must be specified");
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        if (dictionary != null) {
+            return;
+        }
+        Map<String, String> replacements = new LinkedHashMap<>();
+        Enumeration<?> names = filterConfig.getInitParameterNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            replacements.put(name, filterConfig.getInitParameter(name));
+        }
+        if (replacements.isEmpty()) {
+            throw new ServletException(String.format(
+                    "No replacements configured for filter '%s', add an init-param for each string to replace",
+                    filterConfig.getFilterName()));
+        }
+        dictionary = new ReplacementDictionary(replacements);
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+            throws IOException, ServletException {
+        if (!(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReplacingResponseWrapper wrapper = wrap((HttpServletResponse) response, dictionary);
+        chain.doFilter(request, wrapper);
+        wrapper.finish();
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release
+    }
+
+    /**
+     * Wrap the response for rewriting. Override to customise which content types are rewritten.
+     *
+     * @param response
+     *            the response to wrap
+     * @param dictionary
+     *            the strings to locate and their replacements
+     * @return the wrapped response
+     */
+    protected ReplacingResponseWrapper wrap(final HttpServletResponse response,
+            final ReplacementDictionary dictionary) {
+        return new ReplacingResponseWrapper(response, dictionary);
+    }
+}
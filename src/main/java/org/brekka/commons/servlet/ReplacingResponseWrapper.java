@@ -0,0 +1,306 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.servlet;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.util.Locale;
+import java.util.Objects;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.brekka.commons.io.MultiStringReplacingWriter;
+import org.brekka.commons.io.ReplacementDictionary;
+
+/**
+ * Response wrapper that replaces every string in a {@link ReplacementDictionary} as the body is written, whether via
+ * {@link #getWriter()} or {@link #getOutputStream()}. The body is rewritten as it streams through, nothing more than a
+ * possible partial match (plus a small decoding buffer for the output stream) being held back.
+ * <p>
+ * Whether to rewrite is decided when the body is first requested, based on the content type and character encoding
+ * set by then. Bodies that are not text (see {@link #isRewritable(String)}), have a <code>Content-Encoding</code> or
+ * use an unsupported character encoding are passed through untouched. Should bytes written to the output stream turn
+ * out not to be valid in the character encoding, rewriting stops there and the rest of the body is passed through
+ * untouched, so it is never corrupted. When the body is rewritten its length will generally change, so any
+ * <code>Content-Length</code> set is dropped. A length set before the decision is made is held back until then.
+ * <p>
+ * {@link #finish()} must be called once the response is complete, to write out any characters still held.
+ *
+ * @author Andrew Taylor (andrew@brekka.org)
+ */
+public class ReplacingResponseWrapper extends HttpServletResponseWrapper {
+
+    /**
+     * The name of the header that is dropped from rewritten responses.
+     */
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    /**
+     * The name of the header that indicates the body is not plain text.
+     */
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    /**
+     * The strings to locate and their replacements.
+     */
+    private final ReplacementDictionary dictionary;
+
+    /**
+     * Whether the decision to rewrite has been made yet.
+     */
+    private boolean decided;
+
+    /**
+     * Whether the body is being rewritten, only meaningful once <code>decided</code>.
+     */
+    private boolean rewriting;
+
+    /**
+     * A <code>Content-Length</code> set before the decision was made, or null.
+     */
+    private String contentLength;
+
+    /**
+     * Set if a <code>Content-Encoding</code> other than identity has been set.
+     */
+    private boolean encoded;
+
+    /**
+     * The rewriting writer returned by {@link #getWriter()}.
+     */
+    private PrintWriter writer;
+
+    /**
+     * The rewriting stream returned by {@link #getOutputStream()}.
+     */
+    private DecodingServletOutputStream outputStream;
+
+    /**
+     * @param response
+     *            the response to wrap.
+     * @param dictionary
+     *            the strings to locate and their replacements.
+     */
+    public ReplacingResponseWrapper(final HttpServletResponse response, final ReplacementDictionary dictionary) {
+        super(response);
+        Objects.requireNonNull(dictionary, "A dictionary must be specified");
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer != null) {
+            return writer;
+        }
+        if (!decide()) {
+            return super.getWriter();
+        }
+        Writer target = new UnclosedWriter(super.getWriter());
+        writer = new PrintWriter(new MultiStringReplacingWriter(target, dictionary));
+        return writer;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream != null) {
+            return outputStream;
+        }
+        if (!decide()) {
+            return super.getOutputStream();
+        }
+        Charset charset = Charset.forName(getCharacterEncoding());
+        ServletOutputStream raw = super.getOutputStream();
+        Writer target = new UnclosedWriter(new OutputStreamWriter(raw, charset));
+        outputStream = new DecodingServletOutputStream(new MultiStringReplacingWriter(target, dictionary), charset,
+                raw);
+        return outputStream;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void setContentLength(final int len) {
+        if (lengthAllowed(String.valueOf(len))) {
+            super.setContentLength(len);
+        }
+    }
+
+    /**
+     * Servlet 3.1 addition, declared here without <code>@Override</code> so that the length cannot bypass the wrapper
+     * on containers that use it, while still compiling against earlier versions of the API.
+     *
+     * @param len
+     *            the length of the body
+     */
+    public void setContentLengthLong(final long len) {
+        if (lengthAllowed(String.valueOf(len))) {
+            super.setHeader(CONTENT_LENGTH, String.valueOf(len));
+        }
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        if (allowed(name, value)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        if (allowed(name, value)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(final String name, final int value) {
+        if (allowed(name, String.valueOf(value))) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(final String name, final int value) {
+        if (allowed(name, String.valueOf(value))) {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    /**
+     * Complete the response, writing out any characters still held as a possible partial match. Neither the
+     * underlying writer nor output stream is closed. If the body was never requested, a <code>Content-Length</code>
+     * held back is now set after all.
+     *
+     * @throws IOException
+     *             if the underlying response fails
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.close();
+        } else if (outputStream != null) {
+            outputStream.close();
+        } else if (!decided && contentLength != null) {
+            super.setHeader(CONTENT_LENGTH, contentLength);
+        }
+    }
+
+    /**
+     * Determine whether a body of the given content type should be rewritten. By default this is any
+     * <code>text/*</code> type, plus the JSON, JavaScript and XML application types.
+     *
+     * @param contentType
+     *            the content type of the response, which may include parameters such as the charset. Never null.
+     * @return true if the body should be rewritten.
+     */
+    protected boolean isRewritable(final String contentType) {
+        String type = contentType;
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon);
+        }
+        type = type.trim().toLowerCase(Locale.ENGLISH);
+        return type.startsWith("text/")
+                || type.equals("application/json")
+                || type.equals("application/javascript")
+                || type.equals("application/x-javascript")
+                || type.equals("application/xml")
+                || type.endsWith("+xml")
+                || type.endsWith("+json");
+    }
+
+    /**
+     * Decide, once, whether the body is to be rewritten. Any <code>Content-Length</code> held back is set if not.
+     */
+    private boolean decide() {
+        if (!decided) {
+            decided = true;
+            String contentType = getContentType();
+            rewriting = contentType != null
+                    && !encoded
+                    && isRewritable(contentType)
+                    && isSupported(getCharacterEncoding());
+            if (!rewriting && contentLength != null) {
+                super.setHeader(CONTENT_LENGTH, contentLength);
+            }
+            contentLength = null;
+        }
+        return rewriting;
+    }
+
+    /**
+     * Track the headers that affect rewriting, determining whether the header may be passed on now.
+     */
+    private boolean allowed(final String name, final String value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            return lengthAllowed(value);
+        }
+        if (CONTENT_ENCODING.equalsIgnoreCase(name) && value != null && !"identity".equalsIgnoreCase(value.trim())) {
+            encoded = true;
+        }
+        return true;
+    }
+
+    private boolean lengthAllowed(final String value) {
+        if (decided) {
+            return !rewriting;
+        }
+        contentLength = value;
+        return false;
+    }
+
+    private static boolean isSupported(final String charsetName) {
+        if (charsetName == null) {
+            return false;
+        }
+        try {
+            return Charset.isSupported(charsetName);
+        } catch (IllegalCharsetNameException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Leaves closing the underlying writer to the container, only flushing it when closed.
+     */
+    private static final class UnclosedWriter extends FilterWriter {
+
+        UnclosedWriter(final Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
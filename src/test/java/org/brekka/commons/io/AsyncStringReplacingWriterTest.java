@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AsyncStringReplacingWriter}
+ *
+ * @author Andrew Taylor
+ */
+public class AsyncStringReplacingWriterTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void spansChunks() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            input.append("alpha ${x} beta ").append(i);
+            expected.append("alpha VALUE beta ").append(i);
+        }
+        StringWriter out = new StringWriter();
+        try (Writer writer = new AsyncStringReplacingWriter(out, new CharSequenceLocator("${x}"), "VALUE", executor,
+                7, 3)) {
+            for (int i = 0; i < input.length(); i += 13) {
+                writer.write(input.toString(), i, Math.min(13, input.length() - i));
+            }
+        }
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    public void flushDrains() throws Exception {
+        StringWriter out = new StringWriter();
+        Writer writer = new AsyncStringReplacingWriter(out, new CharSequenceLocator("ab"), "X", executor);
+        writer.write("xxabxxa");
+        writer.flush();
+        // The trailing 'a' may still be part of a match
+        assertEquals("xxXxx", out.toString());
+        writer.append("b");
+        writer.close();
+        assertEquals("xxXxxX", out.toString());
+    }
+
+    @Test
+    public void failurePropagates() throws Exception {
+        Writer failing = new StringWriter() {
+            @Override
+            public void write(final String str, final int off, final int len) {
+                throw new IllegalStateException("Downstream failed");
+            }
+
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) {
+                throw new IllegalStateException("Downstream failed");
+            }
+        };
+        Writer writer = new AsyncStringReplacingWriter(failing, new CharSequenceLocator("ab"), "X", executor, 4, 2);
+        try {
+            for (int i = 0; i < 100; i++) {
+                writer.write("0123456789");
+            }
+            writer.flush();
+            fail("The failure should have been reported");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            writer.close();
+            fail("The failure should be reported again on close");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sameThreadExecutor() throws Exception {
+        new AsyncStringReplacingWriter(new StringWriter(), new CharSequenceLocator("ab"), "X", Runnable::run);
+    }
+
+    @Test
+    public void workerInterrupted() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        StringWriter out = new StringWriter();
+        Writer writer = new AsyncStringReplacingWriter(out, new CharSequenceLocator("ab"), "X", single);
+        writer.write("xxab");
+        // Once flushed the worker is known to be running, so is waiting for more work
+        writer.flush();
+        single.shutdownNow();
+        try {
+            writer.flush();
+            fail("The interrupt should have been reported");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof InterruptedIOException);
+        }
+        assertEquals("xxX", out.toString());
+    }
+}
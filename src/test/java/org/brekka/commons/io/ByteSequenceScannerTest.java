@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ByteSequenceScanner}
+ *
+ * @author Andrew Taylor
+ */
+public class ByteSequenceScannerTest {
+
+    @Test
+    public void none() throws Exception {
+        test("alpha bravo charlie", new long[0]);
+    }
+    @Test
+    public void multiByte() throws Exception {
+        // Offsets are in bytes, the accented characters take two each
+        test("\u00e9\u00e9|RS|\u00e9|RS|", new long[] { 4, 10 });
+    }
+    @Test
+    public void spanningReads() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        LongArraySink expected = new LongArraySink();
+        for (int i = 0; i < 20000; i++) {
+            expected.accept(sb.length());
+            sb.append("|RS|").append(i);
+        }
+        test(sb.toString(), expected.toArray());
+    }
+    @Test
+    public void guardedDirect() throws Exception {
+        byte[] bytes = "0123456789\\|RS|0123456789|RS|".getBytes(StandardCharsets.UTF_8);
+        ByteSequenceLocator locator = new ByteSequenceLocator("|RS|".getBytes(StandardCharsets.UTF_8),
+                "\\".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+        buf.put(bytes);
+        assertEquals(bytes.length, locator.find(buf, 0, bytes.length));
+        locator.clear();
+        assertEquals(bytes.length, locator.find(bytes, 0, bytes.length));
+    }
+    @Test
+    public void bufferPosition() throws Exception {
+        ByteSequenceScanner scanner = new ByteSequenceScanner(
+                new ByteSequenceLocator("|RS|".getBytes(StandardCharsets.UTF_8)));
+        ByteBuffer buf = ByteBuffer.wrap("xx|RS|yy|RS|".getBytes(StandardCharsets.UTF_8));
+        buf.position(2);
+        LongArraySink sink = new LongArraySink();
+        assertEquals(2, scanner.scan(buf, sink));
+        assertArrayEquals(new long[] { 0, 6 }, sink.toArray());
+        assertEquals(2, buf.position());
+    }
+
+    protected void test(final String val, final long[] expected) throws Exception {
+        byte[] bytes = val.getBytes(StandardCharsets.UTF_8);
+        ByteSequenceScanner scanner = new ByteSequenceScanner(
+                new ByteSequenceLocator("|RS|".getBytes(StandardCharsets.UTF_8)));
+        LongArraySink sink = new LongArraySink();
+        assertEquals(expected.length, scanner.scan(new ByteArrayInputStream(bytes), sink));
+        assertArrayEquals(expected, sink.toArray());
+        sink.clear();
+        assertEquals(expected.length, scanner.scan(ByteBuffer.wrap(bytes), sink));
+        assertArrayEquals(expected, sink.toArray());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CharSequenceLocator}
+ *
+ * @author Andrew Taylor
+ */
+public class CharSequenceLocatorTest {
+
+    @Test
+    public void selfOverlapping() throws Exception {
+        assertEquals(5, new CharSequenceLocator("aab").find("aaaab".toCharArray(), 0, 5));
+        assertEquals(7, new CharSequenceLocator("abab").find("abaabab".toCharArray(), 0, 7));
+    }
+    @Test
+    public void notFound() throws Exception {
+        CharSequenceLocator locator = new CharSequenceLocator("abc");
+        assertEquals(-1, locator.find("xxab", 0, 4));
+        assertEquals(2, locator.getCandidateLength());
+        assertEquals(1, locator.find("cd", 0, 2));
+    }
+    @Test
+    public void guarded() throws Exception {
+        CharSequenceLocator locator = new CharSequenceLocator("ab", "\\");
+        assertEquals(6, locator.find("\\abxab", 0, 6));
+        assertTrue(locator.isFound());
+        locator.clear();
+        assertEquals(-1, locator.find("\\ab", 0, 3));
+        assertFalse(locator.isFound());
+    }
+    @Test
+    public void longMarker() throws Exception {
+        StringBuilder marker = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            marker.append('a');
+        }
+        marker.append('b');
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append('a');
+        }
+        text.append('b');
+        CharSequenceLocator locator = new CharSequenceLocator(marker.toString());
+        assertEquals(text.length(), locator.find(text, 0, text.length()));
+        assertEquals(marker.length(), locator.getCandidateLength());
+    }
+    @Test
+    public void caseFolding() throws Exception {
+        assertEquals(-1, new CharSequenceLocator("Secret").find("SECRET", 0, 6));
+        assertEquals(6, new CharSequenceLocator("Secret", null, CaseFolding.ASCII).find("SECRET", 0, 6));
+        assertEquals(-1, new CharSequenceLocator("\u00e9t\u00e9", null, CaseFolding.ASCII).find("\u00c9T\u00c9", 0, 3));
+        assertEquals(3,
+                new CharSequenceLocator("\u00e9t\u00e9", null, CaseFolding.UNICODE).find("\u00c9T\u00c9", 0, 3));
+        assertEquals(-1, new CharSequenceLocator("ab", "X", CaseFolding.ASCII).find("xAB", 0, 3));
+    }
+    @Test
+    public void skipping() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append('x');
+        }
+        text.append("\\ab");
+        for (int i = 0; i < 100; i++) {
+            text.append('y');
+        }
+        text.append("AB");
+        CharSequenceLocator locator = new CharSequenceLocator("ab", "\\", CaseFolding.ASCII);
+        assertEquals(text.length(), locator.find(text.toString(), 0, text.length()));
+        locator.clear();
+        assertEquals(text.length(), locator.find(text.toString().toCharArray(), 0, text.length()));
+        locator.clear();
+        assertEquals(-1, locator.find(text, 0, 103));
+        assertEquals(text.length(), locator.find(text, 103, text.length()));
+    }
+    @Test
+    public void appendDisplaces() throws Exception {
+        CharSequenceLocator locator = new CharSequenceLocator("abc");
+        StringBuilder displaced = new StringBuilder();
+        for (char c : "xyzab".toCharArray()) {
+            boolean replacing = locator.isReplacing();
+            char d = locator.append(c);
+            if (replacing) {
+                displaced.append(d);
+            }
+            assertFalse(locator.isFound());
+        }
+        assertEquals("xy", displaced.toString());
+        locator.append('c');
+        assertTrue(locator.isFound());
+        assertEquals("abc", new String(locator.purge()));
+    }
+}
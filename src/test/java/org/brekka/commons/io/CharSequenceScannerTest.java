@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CharSequenceScanner}
+ *
+ * @author Andrew Taylor
+ */
+public class CharSequenceScannerTest {
+
+    @Test
+    public void none() throws Exception {
+        test("alpha bravo charlie", new long[0]);
+    }
+    @Test
+    public void several() throws Exception {
+        test("\\nalpha\\nbravo\\\\ncharlie\\n", new long[] { 0, 7, 24 });
+    }
+    @Test
+    public void spanningReads() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        LongArraySink expected = new LongArraySink();
+        for (int i = 0; i < 10000; i++) {
+            expected.accept(sb.length());
+            sb.append("\\n").append(i);
+        }
+        test(sb.toString(), expected.toArray());
+    }
+
+    protected void test(final String val, final long[] expected) throws Exception {
+        CharSequenceScanner scanner = new CharSequenceScanner(new CharSequenceLocator("\\n", "\\"));
+        LongArraySink sink = new LongArraySink(0);
+        try (Reader reader = new StringReader(val)) {
+            assertEquals(expected.length, scanner.scan(reader, sink));
+        }
+        assertArrayEquals(expected, sink.toArray());
+        sink.clear();
+        assertEquals(expected.length, scanner.scan(CharBuffer.wrap(val), sink));
+        assertArrayEquals(expected, sink.toArray());
+    }
+}
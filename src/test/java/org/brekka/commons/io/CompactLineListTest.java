@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompactLineList}
+ *
+ * @author Andrew Taylor
+ */
+public class CompactLineListTest {
+
+    @Test
+    public void latin1ThenInflated() throws Exception {
+        CompactLineList list = new CompactLineList();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String line = i == 1500 ? "na\u00efve \u2192 " + i : "line \u00e9 " + i;
+            list.add(new StringBuilder(line));
+            expected.add(line);
+        }
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected, list.asStrings());
+        assertEquals("line \u00e9 12", list.get(12).toString());
+        assertEquals("na\u00efve \u2192 1500", list.get(1500).toString());
+        list.trimToSize();
+        assertEquals(expected, list.asStrings());
+    }
+
+    @Test
+    public void lineViews() throws Exception {
+        CompactLineList list = new CompactLineList();
+        list.addAll(Arrays.asList("", "abcdef", "abc"));
+        assertEquals(0, list.get(0).length());
+        CharSequence line = list.get(1);
+        assertEquals('d', line.charAt(3));
+        assertEquals("cd", line.subSequence(2, 4).toString());
+        assertEquals(list.get(2), line.subSequence(0, 3));
+        assertEquals("abc".hashCode(), list.get(2).hashCode());
+    }
+
+    @Test
+    public void contentEquality() throws Exception {
+        CompactLineList list = new CompactLineList();
+        list.addAll(Arrays.asList("abc", "", "d\u00e9f", "abc"));
+        assertEquals(list.get(0), list.get(3));
+        assertFalse(list.get(0).equals(list.get(2)));
+        CompactLineList other = new CompactLineList();
+        other.add("abc");
+        assertEquals(list.get(0), other.get(0));
+        // Equality with a String could not be symmetric
+        assertFalse(list.get(0).equals("abc"));
+        assertTrue(list.contains("abc"));
+        assertFalse(list.contains("ab"));
+        assertFalse(list.contains(null));
+        assertEquals(1, list.indexOf(""));
+        assertEquals(0, list.indexOf(new StringBuilder("abc")));
+        assertEquals(3, list.lastIndexOf("abc"));
+        assertEquals(-1, list.indexOf(42));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() throws Exception {
+        CompactLineList list = new CompactLineList();
+        list.add("abc");
+        list.get(1);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link EscapingWriter} and {@link EscapeTable}
+ *
+ * @author Andrew Taylor
+ */
+public class EscapingWriterTest {
+
+    @Test
+    public void html() throws Exception {
+        test(EscapeTable.HTML, "alpha bravo", "alpha bravo");
+        test(EscapeTable.HTML, "<a href=\"x?a=1&b='2'\">", "&lt;a href=&quot;x?a=1&amp;b=&#39;2&#39;&quot;&gt;");
+        test(EscapeTable.HTML, "&&", "&amp;&amp;");
+    }
+    @Test
+    public void xml() throws Exception {
+        test(EscapeTable.XML, "'\u00e9'", "&apos;\u00e9&apos;");
+    }
+    @Test
+    public void json() throws Exception {
+        test(EscapeTable.JSON, "say \"hi\"\\\n\t\u0001\u2028", "say \\\"hi\\\"\\\\\\n\\t\\u0001\u2028");
+    }
+    @Test
+    public void custom() throws Exception {
+        EscapeTable table = new EscapeTable(Collections.singletonMap('\u00e9', "e"));
+        test(table, "caf\u00e9 \u00e9t\u00e9", "cafe ete");
+    }
+    @Test
+    public void unchanged() throws Exception {
+        String val = "nothing to escape";
+        assertSame(val, EscapeTable.HTML.escape(val));
+    }
+    @Test
+    public void singleChars() throws Exception {
+        StringWriter out = new StringWriter();
+        try (EscapingWriter writer = new EscapingWriter(out, EscapeTable.HTML)) {
+            writer.write('<');
+            writer.append('b').append('>');
+        }
+        assertEquals("&lt;b&gt;", out.toString());
+    }
+
+    protected void test(final EscapeTable table, final String val, final String expected) throws Exception {
+        assertEquals(expected, table.escape(val));
+        assertEquals(expected, table.escape(new StringBuilder(val)));
+
+        StringWriter out = new StringWriter();
+        try (EscapingWriter writer = new EscapingWriter(out, table)) {
+            writer.write(val);
+        }
+        assertEquals(expected, out.toString());
+
+        out = new StringWriter();
+        try (EscapingWriter writer = new EscapingWriter(out, table)) {
+            char[] cbuf = ("xx" + val + "yy").toCharArray();
+            writer.write(cbuf, 2, val.length());
+        }
+        assertEquals(expected, out.toString());
+
+        out = new StringWriter();
+        try (EscapingWriter writer = new EscapingWriter(out, table)) {
+            writer.append(CharBuffer.wrap("xx" + val), 2, val.length() + 2);
+        }
+        assertEquals(expected, out.toString());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link IterableStringInputStream}
+ *
+ * @author Andrew Taylor
+ */
+public class IterableStringInputStreamTest {
+
+    private static final List<String> LINES = Arrays.asList(
+            "plain ascii", "caf\u00e9 \u20ac5", "", "\ud83d\ude00 emoji", "tail");
+
+    @Test
+    public void empty() throws Exception {
+        assertEquals(-1, new IterableStringInputStream(Collections.<String>emptyList(), StandardCharsets.UTF_8).read());
+    }
+
+    @Test
+    public void charsets() throws Exception {
+        for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+                StandardCharsets.US_ASCII, StandardCharsets.UTF_16BE, Charset.forName("windows-1252"))) {
+            byte[] expected = expected(LINES, "\n", charset);
+            assertArrayEquals(charset.name(),
+                    expected, IOUtils.toByteArray(new IterableStringInputStream(LINES, charset)));
+            assertArrayEquals(charset.name(),
+                    expected, readSlowly(new IterableStringInputStream(LINES, charset), 1));
+            assertArrayEquals(charset.name(),
+                    expected, readSlowly(new IterableStringInputStream(LINES, charset), 70));
+        }
+    }
+
+    @Test
+    public void statefulCharsets() throws Exception {
+        List<String> lines = Arrays.asList("ab", "cd", "\u3042a\u3044", "end");
+        for (Charset charset : Arrays.asList(StandardCharsets.UTF_16, Charset.forName("ISO-2022-JP"))) {
+            byte[] expected = expected(lines, "\n", charset);
+            assertArrayEquals(charset.name(),
+                    expected, IOUtils.toByteArray(new IterableStringInputStream(lines, charset)));
+            assertArrayEquals(charset.name(),
+                    expected, readSlowly(new IterableStringInputStream(lines, charset), 1));
+        }
+    }
+
+    @Test
+    public void splitSurrogate() throws Exception {
+        assertEquals("a\ud83d\ude00b", new String(IOUtils.toByteArray(
+                new IterableStringInputStream(Stream.of("a\ud83d", "\ude00b"), StandardCharsets.UTF_8, "")),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void separator() throws Exception {
+        assertArrayEquals(expected(LINES, "\r\n", StandardCharsets.UTF_8), IOUtils.toByteArray(
+                new IterableStringInputStream(LINES.stream(), StandardCharsets.UTF_8, "\r\n")));
+        assertEquals("abc", new String(IOUtils.toByteArray(
+                new IterableStringInputStream(Stream.of("a", "b", "c"), StandardCharsets.UTF_8, "")),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void longLine() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("abc\u00e9");
+        }
+        List<CharSequence> lines = Arrays.<CharSequence>asList(sb, sb.toString());
+        assertArrayEquals(expected(lines, "\n", StandardCharsets.UTF_8), readSlowly(
+                new IterableStringInputStream(lines, StandardCharsets.UTF_8), 1000));
+    }
+
+    private static byte[] expected(final List<? extends CharSequence> lines, final String separator,
+            final Charset charset) {
+        StringBuilder sb = new StringBuilder();
+        for (CharSequence line : lines) {
+            sb.append(line).append(separator);
+        }
+        return sb.toString().getBytes(charset);
+    }
+
+    private static byte[] readSlowly(final InputStream is, final int size) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[size];
+        int count;
+        while ((count = is.read(buf, 0, buf.length)) != -1) {
+            baos.write(buf, 0, count);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -23,6 +23,10 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
 
 import org.junit.Test;
 
@@ -61,4 +65,35 @@ public class IterableStringReaderTest {
         assertEquals("This is also a test", br.readLine());
         assertNull(br.readLine());
     }
+
+    @Test
+    public void testSeparator() throws IOException {
+        IterableStringReader reader = new IterableStringReader(Arrays.asList("one", "", "three"), "\r\n");
+        assertEquals("one\r\n\r\nthree\r\n", IOUtils.toString(reader));
+        reader = new IterableStringReader(Arrays.asList("one", "two"), "");
+        assertEquals("onetwo", IOUtils.toString(reader));
+    }
+
+    @Test
+    public void testSmallReads() throws IOException {
+        IterableStringReader reader = new IterableStringReader(
+                Arrays.asList(new StringBuilder("abcde"), "fgh"), "<>");
+        char[] cbuf = new char[3];
+        StringBuilder sb = new StringBuilder();
+        int count;
+        while ((count = reader.read(cbuf, 0, cbuf.length)) != -1) {
+            sb.append(cbuf, 0, count);
+        }
+        assertEquals("abcde<>fgh<>", sb.toString());
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<String> lines = Stream.of("first", "second").onClose(() -> closed.set(true));
+        try (IterableStringReader reader = new IterableStringReader(lines, "\n")) {
+            assertEquals("first\nsecond\n", IOUtils.toString(reader));
+        }
+        assertEquals(true, closed.get());
+    }
 }
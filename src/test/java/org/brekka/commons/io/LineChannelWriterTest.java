@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LineChannelWriter}
+ *
+ * @author Andrew Taylor
+ */
+public class LineChannelWriterTest {
+
+    @Test
+    public void reused() throws Exception {
+        LineChannelWriter writer = new LineChannelWriter(StandardCharsets.UTF_8, "\n", 64);
+        List<String> lines = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String line = "line " + i + (i % 3 == 0 ? " \u00fcber \u4e2d" : "");
+            lines.add(line);
+            expected.append(line).append('\n');
+        }
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            long written = writer.write(lines, Channels.newChannel(baos));
+            assertEquals(baos.size(), written);
+            assertEquals(expected.toString(), new String(baos.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void unmappable() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new LineChannelWriter(StandardCharsets.US_ASCII).write(Arrays.asList("na\u00efve"), Channels.newChannel(baos));
+        assertEquals("na?ve\n", new String(baos.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link MultiStringReplacingReader}
+ *
+ * @author Andrew Taylor
+ */
+public class MultiStringReplacingReaderTest {
+
+    private static final ReplacementDictionary DICTIONARY;
+    static {
+        Map<String, String> replacements = new LinkedHashMap<>();
+        replacements.put("${name}", "Alice");
+        replacements.put("${place}", "Wonderland");
+        replacements.put("${n}", "42");
+        replacements.put("he", "HE");
+        replacements.put("she", "SHE");
+        replacements.put("hers", "HERS");
+        DICTIONARY = new ReplacementDictionary(replacements);
+    }
+
+    @Test
+    public void empty() throws Exception {
+        test("", "");
+    }
+    @Test
+    public void noMatch() throws Exception {
+        test("alpha bravo", "alpha bravo");
+    }
+    @Test
+    public void atStart() throws Exception {
+        test("${name} went to", "Alice went to");
+    }
+    @Test
+    public void atEnd() throws Exception {
+        test("went to ${place}", "went to Wonderland");
+    }
+    @Test
+    public void several() throws Exception {
+        test("${name} went to ${place} ${n} times", "Alice went to Wonderland 42 times");
+    }
+    @Test
+    public void consecutive() throws Exception {
+        test("${n}${n}${name}${n}", "4242Alice42");
+    }
+    @Test
+    public void partialEnd() throws Exception {
+        test("alpha ${nam", "alpha ${nam");
+    }
+    @Test
+    public void partialThenMatch() throws Exception {
+        test("${na${n}", "${na42");
+    }
+    @Test
+    public void longestEndingFirst() throws Exception {
+        test("ushers", "uSHErs");
+    }
+    @Test
+    public void overlapping() throws Exception {
+        test("hers ahe", "HErs aHE");
+    }
+    @Test
+    public void spanningBuffer() throws Exception {
+        StringBuilder in = new StringBuilder();
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            in.append(i).append("${name}").append(i % 7 == 0 ? "${n}" : "x");
+            out.append(i).append("Alice").append(i % 7 == 0 ? "42" : "x");
+        }
+        test(in.toString(), out.toString());
+    }
+
+    protected void test(final String val, final String expected) throws Exception {
+        StringReader sr = new StringReader(val);
+        try (MultiStringReplacingReader reader = new MultiStringReplacingReader(sr, DICTIONARY)) {
+            // Small buffer size to test bounds
+            char[] buf = new char[7];
+            int cnt = 0;
+            StringBuilder sb = new StringBuilder();
+            while ((cnt = reader.read(buf, 0, buf.length)) != -1) {
+                sb.append(buf, 0, cnt);
+            }
+            assertEquals(expected, sb.toString());
+        }
+    }
+}
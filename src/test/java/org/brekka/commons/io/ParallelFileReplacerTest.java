@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParallelFileReplacer}
+ *
+ * @author Andrew Taylor
+ */
+public class ParallelFileReplacerTest {
+
+    @Test
+    public void empty() throws Exception {
+        test("");
+    }
+    @Test
+    public void noEscape() throws Exception {
+        test("There is no need to escape this string");
+    }
+    @Test
+    public void multiple() throws Exception {
+        test("${token} alpha ${token} beta ${token}${token} charlie ${tok");
+    }
+    @Test
+    public void notPreceding() throws Exception {
+        test("alpha $${token} bravo ${token}", "alpha $${token} bravo value");
+    }
+    @Test
+    public void selfOverlapping() throws Exception {
+        // Each match affects where the next can start, so chunk boundaries must not change the result
+        for (int chunkSize = 1; chunkSize < 12; chunkSize++) {
+            assertEquals("XXa", replace("aaaaa", "aa", null, "X", chunkSize));
+            assertEquals("baXa", replace("baaaa", "aa", "b", "X", chunkSize));
+        }
+    }
+
+    @Test
+    public void researchConverges() throws Exception {
+        // A match straddles each chunk boundary, so the start of every chunk is searched again
+        StringBuilder val = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            val.append("aaaaaaaa aa b aa");
+            expected.append("XXXX X b X");
+        }
+        for (int chunkSize = 3; chunkSize < 40; chunkSize++) {
+            assertEquals(expected.toString(), replace(val.toString(), "aa", null, "X", chunkSize));
+        }
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkTooLarge() throws Exception {
+        new ParallelFileReplacer("${token}".getBytes(StandardCharsets.UTF_8), "$".getBytes(StandardCharsets.UTF_8),
+                new byte[0], ForkJoinPool.commonPool(), Integer.MAX_VALUE - 7);
+    }
+
+    protected void test(final String val) throws Exception {
+        test(val, val.replace("${token}", "value"));
+    }
+
+    protected void test(final String val, final String expected) throws Exception {
+        for (int chunkSize = 1; chunkSize < 20; chunkSize += 2) {
+            assertEquals(expected, replace(val, "${token}", "$", "value", chunkSize));
+        }
+    }
+
+    private static String replace(final String val, final String toLocate, final String mustNotFollow,
+            final String replacement, final int chunkSize) throws Exception {
+        Path source = Files.createTempFile("source", ".txt");
+        Path target = Files.createTempFile("target", ".txt");
+        try {
+            Files.write(source, val.getBytes(StandardCharsets.UTF_8));
+            ParallelFileReplacer replacer = new ParallelFileReplacer(toLocate.getBytes(StandardCharsets.UTF_8),
+                    mustNotFollow != null ? mustNotFollow.getBytes(StandardCharsets.UTF_8) : null,
+                    replacement.getBytes(StandardCharsets.UTF_8), ForkJoinPool.commonPool(), chunkSize);
+            long written = replacer.replace(source, target);
+            assertEquals(Files.size(target), written);
+            return new String(Files.readAllBytes(target), StandardCharsets.UTF_8);
+        } finally {
+            Files.delete(source);
+            Files.delete(target);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PlaceholderExpandingWriter}
+ *
+ * @author Andrew Taylor
+ */
+public class PlaceholderExpandingWriterTest {
+
+    private static final Map<String, String> VALUES = new HashMap<>();
+    static {
+        VALUES.put("name", "Alice");
+        VALUES.put("place", "Wonderland");
+        VALUES.put("", "empty");
+    }
+
+    @Test
+    public void empty() throws Exception {
+        test("", "");
+    }
+    @Test
+    public void noPlaceholders() throws Exception {
+        test("alpha $ bravo { charlie }", "alpha $ bravo { charlie }");
+    }
+    @Test
+    public void placeholders() throws Exception {
+        test("${name} went to ${place}", "Alice went to Wonderland");
+    }
+    @Test
+    public void consecutive() throws Exception {
+        test("${name}${name}${}${place}", "AliceAliceemptyWonderland");
+    }
+    @Test
+    public void unknown() throws Exception {
+        test("${name} met ${rabbit}", "Alice met ${rabbit}");
+    }
+    @Test
+    public void partialPrefix() throws Exception {
+        test("$$${name} $", "$$Alice $");
+    }
+    @Test
+    public void unterminated() throws Exception {
+        test("${name} went to ${place", "Alice went to ${place");
+    }
+    @Test
+    public void keyTooLong() throws Exception {
+        StringWriter sw = new StringWriter();
+        try (Writer writer = new PlaceholderExpandingWriter(sw, "${", "}", 4, new KeyLookup(VALUES))) {
+            writer.write("${name} ${place} ${name}");
+        }
+        assertEquals("${name} ${place} ${name}".replace("${name}", "Alice"), sw.toString());
+    }
+    @Test
+    public void resolverFunction() throws Exception {
+        StringWriter sw = new StringWriter();
+        try (Writer writer = new PlaceholderExpandingWriter(sw, "{{", "}}", 16, key -> key.length() + "")) {
+            writer.append("{{abc}} and {").append(new StringBuilder("{abcde}"), 0, 7).write("}!");
+        }
+        assertEquals("3 and 5!", sw.toString());
+    }
+
+    protected void test(final String text, final String expected) throws IOException {
+        StringWriter sw = new StringWriter();
+        try (PlaceholderExpandingWriter pew = new PlaceholderExpandingWriter(sw, VALUES);
+                // Choose a small buffer size to test boundaries
+                Writer w = new BufferedWriter(pew, 3)) {
+            for (int i = 0; i < text.length(); i++) {
+                w.write(text.charAt(i));
+            }
+        }
+        assertEquals(expected, sw.toString());
+    }
+}
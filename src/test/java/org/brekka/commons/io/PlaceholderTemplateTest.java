@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PlaceholderTemplate}
+ *
+ * @author Andrew Taylor
+ */
+public class PlaceholderTemplateTest {
+
+    @Test
+    public void noPlaceholders() throws Exception {
+        PlaceholderTemplate template = new PlaceholderTemplate("alpha $ bravo");
+        assertEquals("alpha $ bravo", template.render(Collections.<String, String>emptyMap()));
+    }
+    @Test
+    public void renderedRepeatedly() throws Exception {
+        PlaceholderTemplate template = new PlaceholderTemplate("Dear ${name}, welcome to ${place}${missing}.");
+        Map<String, String> values = new HashMap<>();
+        values.put("place", "Wonderland");
+        for (String name : new String[] { "Alice", "Bob" }) {
+            values.put("name", name);
+            assertEquals("Dear " + name + ", welcome to Wonderland${missing}.", template.render(values));
+        }
+    }
+    @Test
+    public void customDelimiters() throws Exception {
+        PlaceholderTemplate template = new PlaceholderTemplate("<%a%><%bb%> <%c", "<%", "%>", 10);
+        StringWriter sw = new StringWriter();
+        template.render(key -> key.toUpperCase(), sw);
+        assertEquals("ABB <%c", sw.toString());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplacementPlan}
+ *
+ * @author Andrew Taylor
+ */
+public class ReplacementPlanTest {
+
+    private static final ReplacementPlan PLAN = new ReplacementPlan("${name}", "\\", CaseFolding.NONE, "World");
+
+    @Test
+    public void readerAndWriter() throws Exception {
+        String input = "Hello ${name}, not \\${name}";
+        String expected = "Hello World, not \\${name}";
+        assertEquals(expected, IOUtils.toString(PLAN.newReader(new StringReader(input))));
+        StringWriter out = new StringWriter();
+        try (Writer writer = PLAN.newWriter(out)) {
+            writer.write(input);
+        }
+        assertEquals(expected, out.toString());
+        assertEquals("World", PLAN.getReplacement());
+    }
+
+    @Test
+    public void sharedAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                final int n = i;
+                results.add(executor.submit(() -> {
+                    StringBuilder sb = new StringBuilder();
+                    for (int j = 0; j < 200; j++) {
+                        sb.append(n).append("${name}");
+                    }
+                    return IOUtils.toString(PLAN.newReader(new StringReader(sb.toString()), 16, null));
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                StringBuilder expected = new StringBuilder();
+                for (int j = 0; j < 200; j++) {
+                    expected.append(i).append("World");
+                }
+                assertEquals(expected.toString(), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplacementStatistics}
+ *
+ * @author Andrew Taylor
+ */
+public class ReplacementStatisticsTest {
+
+    private static final String INPUT = "one {x} two {x}{x} three";
+
+    @Test
+    public void reader() throws Exception {
+        ReplacementStatistics statistics = new ReplacementStatistics();
+        String result = IOUtils.toString(new StringReplacingReader(new StringReader(INPUT),
+                new CharSequenceLocator("{x}"), "VALUE", 4, statistics));
+        assertEquals("one VALUE two VALUEVALUE three", result);
+        check(statistics);
+    }
+
+    @Test
+    public void writer() throws Exception {
+        ReplacementStatistics statistics = new ReplacementStatistics();
+        StringWriter out = new StringWriter();
+        try (Writer writer = new StringReplacingWriter(out, new CharSequenceLocator("{x}"), "VALUE", statistics)) {
+            for (char c : INPUT.toCharArray()) {
+                writer.write(c);
+            }
+        }
+        assertEquals("one VALUE two VALUEVALUE three", out.toString());
+        check(statistics);
+    }
+
+    @Test
+    public void inputStream() throws Exception {
+        ReplacementStatistics statistics = new ReplacementStatistics();
+        byte[] result = IOUtils.toByteArray(new ReplacingInputStream(
+                new ByteArrayInputStream(INPUT.getBytes(StandardCharsets.US_ASCII)),
+                new ByteSequenceLocator("{x}".getBytes(StandardCharsets.US_ASCII)),
+                "VALUE".getBytes(StandardCharsets.US_ASCII), 4, statistics));
+        assertEquals("one VALUE two VALUEVALUE three", new String(result, StandardCharsets.US_ASCII));
+        check(statistics);
+    }
+
+    @Test
+    public void dictionary() throws Exception {
+        ReplacementStatistics statistics = new ReplacementStatistics();
+        ReplacementDictionary dictionary = new ReplacementDictionary(Collections.singletonMap("{x}", "VALUE"));
+        String result = IOUtils.toString(new MultiStringReplacingReader(new StringReader(INPUT), dictionary,
+                statistics));
+        assertEquals("one VALUE two VALUEVALUE three", result);
+        check(statistics);
+    }
+
+    @Test
+    public void pipeline() throws Exception {
+        String name = "test \"pipeline\"";
+        ReplacementStatistics statistics = ReplacementStatistics.forPipeline(name);
+        assertSame(statistics, ReplacementStatistics.forPipeline(name));
+        statistics.record(3, 1, 2, 0);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = ReplacementStatistics.objectName(name);
+        assertEquals(1L, server.getAttribute(objectName, "Matches"));
+        assertEquals(2L, server.getAttribute(objectName, "Expansion"));
+        assertEquals(0L, server.getAttribute(objectName, "ProcessNanos"));
+        server.invoke(objectName, "reset", null, null);
+        assertEquals(0L, statistics.getMatches());
+        ReplacementStatistics.removePipeline(name);
+        assertFalse(server.isRegistered(objectName));
+    }
+
+    private static void check(final ReplacementStatistics statistics) {
+        assertEquals(INPUT.length(), statistics.getProcessed());
+        assertEquals(3, statistics.getMatches());
+        assertEquals(6, statistics.getExpansion());
+        assertTrue(statistics.getProcessNanos() >= 0);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplacingChannelTransfer}
+ *
+ * @author Andrew Taylor
+ */
+public class ReplacingChannelTransferTest {
+
+    @Test
+    public void empty() throws Exception {
+        test("");
+    }
+    @Test
+    public void noEscape() throws Exception {
+        test("There is no need to escape this string");
+    }
+    @Test
+    public void atStart() throws Exception {
+        test("${token} alpha beta charlie");
+    }
+    @Test
+    public void atEnd() throws Exception {
+        test("alpha beta charlie ${token}");
+    }
+    @Test
+    public void multiple() throws Exception {
+        test("alpha ${token} beta ${token}${token} charlie ${tok");
+    }
+    @Test
+    public void notPreceding() throws Exception {
+        test("alpha $${token} bravo ${token}", "alpha $${token} bravo value");
+    }
+    @Test
+    public void reused() throws Exception {
+        ReplacingChannelTransfer transfer = newTransfer(11);
+        assertEquals("value ${tok", transfer("${token} ${tok", transfer));
+        assertEquals("value", transfer("${token}", transfer));
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferTooSmall() throws Exception {
+        newTransfer(8);
+    }
+
+    @Test
+    public void predict() throws Exception {
+        ReplacementPrediction prediction = newTransfer(11).predict(Channels.newChannel(
+                new ByteArrayInputStream("${token} $${token} ${token}".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(2, prediction.getMatchCount());
+        assertEquals("value $${token} value".length(), prediction.getLength());
+    }
+    @Test
+    public void predictFile() throws Exception {
+        Path file = Files.createTempFile("transfer", ".txt");
+        try {
+            Files.write(file, "skip alpha ${token} beta ${token}".getBytes(StandardCharsets.UTF_8));
+            ReplacingChannelTransfer transfer = newTransfer(11);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(5);
+                ReplacementPrediction prediction = transfer.predict(channel);
+                assertEquals(5, channel.position());
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                assertEquals(prediction.getLength(), transfer.transfer(channel, Channels.newChannel(baos)));
+                assertEquals("alpha value beta value", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 5, channel.size() - 5);
+                prediction = transfer.predict(mapped);
+                baos.reset();
+                assertEquals(prediction.getLength(), transfer.transfer(mapped, Channels.newChannel(baos)));
+                assertEquals("alpha value beta value", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+                assertEquals(0, mapped.position());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    protected void test(final String val) throws Exception {
+        test(val, val.replace("${token}", "value"));
+    }
+
+    protected void test(final String val, final String expected) throws Exception {
+        int expectedLength = expected.getBytes(StandardCharsets.UTF_8).length;
+        for (int bufferSize = 9; bufferSize < 30; bufferSize += 4) {
+            ReplacingChannelTransfer transfer = newTransfer(bufferSize);
+            assertEquals(expected, transfer(val, transfer));
+            assertEquals(expectedLength, transfer.predict(Channels.newChannel(
+                    new ByteArrayInputStream(val.getBytes(StandardCharsets.UTF_8)))).getLength());
+        }
+        ReplacingChannelTransfer transfer = newTransfer(11);
+        ByteBuffer buf = ByteBuffer.allocateDirect(val.length() * 3 + 2);
+        buf.put((byte) '!').put(val.getBytes(StandardCharsets.UTF_8)).flip().position(1);
+        assertEquals(expectedLength, transfer.predict(buf).getLength());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        assertEquals(expectedLength, transfer.transfer(buf, Channels.newChannel(baos)));
+        assertEquals(expected, new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static String transfer(final String val, final ReplacingChannelTransfer transfer) throws Exception {
+        ByteArrayInputStream bais = new ByteArrayInputStream(val.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        long written = transfer.transfer(Channels.newChannel(bais), Channels.newChannel(baos));
+        assertEquals(baos.size(), written);
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static ReplacingChannelTransfer newTransfer(final int bufferSize) {
+        ByteSequenceLocator locator = new ByteSequenceLocator("${token}".getBytes(StandardCharsets.UTF_8),
+                "$".getBytes(StandardCharsets.UTF_8));
+        return new ReplacingChannelTransfer(locator, "value".getBytes(StandardCharsets.UTF_8), bufferSize);
+    }
+}
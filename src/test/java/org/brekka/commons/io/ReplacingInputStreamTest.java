@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplacingInputStream}
+ *
+ * @author Andrew Taylor
+ */
+public class ReplacingInputStreamTest {
+
+    @Test
+    public void empty() throws Exception {
+        test("");
+    }
+    @Test
+    public void noEscape() throws Exception {
+        test("There is no need to escape this string");
+    }
+    @Test
+    public void atStart() throws Exception {
+        test("${token} alpha beta charlie");
+    }
+    @Test
+    public void atEnd() throws Exception {
+        test("alpha beta charlie ${token}");
+    }
+    @Test
+    public void multiple() throws Exception {
+        test("alpha ${token} beta ${token}${token} charlie ${tok");
+    }
+    @Test
+    public void multiByte() throws Exception {
+        test("\u00e9t\u00e9 ${token} \u20ac ${t\u00f6ken} \ud83d\ude00${token}");
+    }
+    @Test
+    public void notPreceding() throws Exception {
+        test("alpha $${token} bravo ${token}", "alpha $${token} bravo r\u00e9sum\u00e9");
+    }
+    @Test
+    public void skip() throws Exception {
+        ByteArrayInputStream bais = new ByteArrayInputStream("ab${token}cd".getBytes(StandardCharsets.UTF_8));
+        ByteSequenceLocator locator = new ByteSequenceLocator("${token}".getBytes(StandardCharsets.UTF_8));
+        try (ReplacingInputStream ris = new ReplacingInputStream(bais, locator,
+                "xyz".getBytes(StandardCharsets.UTF_8))) {
+            assertEquals(0, ris.skip(-1));
+            assertEquals(0, ris.skip(0));
+            assertEquals(3, ris.skip(3));
+            assertEquals('y', ris.read());
+            assertEquals(3, ris.skip(10));
+            assertEquals(-1, ris.read());
+        }
+    }
+
+    protected void test(final String val) throws Exception {
+        test(val, val.replace("${token}", "r\u00e9sum\u00e9"));
+    }
+
+    protected void test(final String val, final String expected) throws Exception {
+        for (int bufferSize = 1; bufferSize < 20; bufferSize += 3) {
+            ByteArrayInputStream bais = new ByteArrayInputStream(val.getBytes(StandardCharsets.UTF_8));
+            ByteSequenceLocator locator = new ByteSequenceLocator("${token}".getBytes(StandardCharsets.UTF_8),
+                    "$".getBytes(StandardCharsets.UTF_8));
+            try (ReplacingInputStream ris = new ReplacingInputStream(bais, locator,
+                    "r\u00e9sum\u00e9".getBytes(StandardCharsets.UTF_8), bufferSize)) {
+                // Small buffer size to test bounds
+                byte[] buf = new byte[7];
+                int cnt = 0;
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                while ((cnt = ris.read(buf, 0, buf.length)) != -1) {
+                    baos.write(buf, 0, cnt);
+                }
+                assertEquals(expected, new String(baos.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
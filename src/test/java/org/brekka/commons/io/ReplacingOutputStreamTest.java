@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplacingOutputStream}
+ *
+ * @author Andrew Taylor
+ */
+public class ReplacingOutputStreamTest {
+
+    @Test
+    public void empty() throws Exception {
+        test("");
+    }
+    @Test
+    public void noEscape() throws Exception {
+        test("There is no need to escape this string");
+    }
+    @Test
+    public void atStart() throws Exception {
+        test("${token} alpha beta charlie");
+    }
+    @Test
+    public void atEnd() throws Exception {
+        test("alpha beta charlie ${token}");
+    }
+    @Test
+    public void multiple() throws Exception {
+        test("alpha ${token} beta ${token}${token} charlie ${tok");
+    }
+    @Test
+    public void multiByte() throws Exception {
+        test("\u00e9t\u00e9 ${token} \u20ac ${t\u00f6ken} \ud83d\ude00${token}");
+    }
+    @Test
+    public void notPreceding() throws Exception {
+        test("alpha $${token} bravo ${token}", "alpha $${token} bravo r\u00e9sum\u00e9");
+    }
+    @Test
+    public void byteByByte() throws Exception {
+        String text = "alpha ${token} beta ${tok${token}";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ReplacingOutputStream ros = newStream(baos)) {
+            for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                ros.write(b);
+            }
+        }
+        assertEquals("alpha r\u00e9sum\u00e9 beta ${tokr\u00e9sum\u00e9",
+                new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+    @Test
+    public void closeTwice() throws Exception {
+        int[] closes = new int[1];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closes[0]++;
+            }
+        };
+        ReplacingOutputStream ros = newStream(baos);
+        ros.write("ab${tok".getBytes(StandardCharsets.UTF_8));
+        ros.close();
+        ros.close();
+        assertEquals("ab${tok", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(1, closes[0]);
+    }
+
+    protected void test(final String text) throws IOException {
+        test(text, text.replace("${token}", "r\u00e9sum\u00e9"));
+    }
+
+    protected void test(final String text, final String expected) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ReplacingOutputStream ros = newStream(baos);
+                // Choose a small buffer size to test boundaries
+                OutputStream os = new BufferedOutputStream(ros, 5)) {
+            for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                os.write(b);
+            }
+        }
+        assertEquals(expected, new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static ReplacingOutputStream newStream(final OutputStream out) {
+        ByteSequenceLocator locator = new ByteSequenceLocator("${token}".getBytes(StandardCharsets.UTF_8),
+                "$".getBytes(StandardCharsets.UTF_8));
+        return new ReplacingOutputStream(out, locator, "r\u00e9sum\u00e9".getBytes(StandardCharsets.UTF_8));
+    }
+}
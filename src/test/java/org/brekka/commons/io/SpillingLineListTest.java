@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SpillingLineList}
+ *
+ * @author Andrew Taylor
+ */
+public class SpillingLineListTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("spill");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void withinBudget() throws Exception {
+        try (SpillingLineList list = new SpillingLineList(1024 * 1024, dir, false)) {
+            List<String> expected = lines(list, 100);
+            assertFalse(list.isSpilled());
+            assertEquals(expected, list);
+            assertEquals(0, dir.toFile().list().length);
+        }
+    }
+
+    @Test
+    public void spilled() throws Exception {
+        check(false);
+    }
+
+    @Test
+    public void spilledMapped() throws Exception {
+        check(true);
+    }
+
+    @Test
+    public void spillFails() throws Exception {
+        try (SpillingLineList list = new SpillingLineList(100, dir.resolve("missing"), false)) {
+            list.add("alpha");
+            try {
+                list.add("bravo");
+                throw new AssertionError("The spill should have failed");
+            } catch (UncheckedIOException e) {
+                // Expected
+            }
+            assertFalse(list.isSpilled());
+            assertEquals(1, list.size());
+            assertEquals("alpha", list.get(0));
+        }
+    }
+
+    @Test
+    public void writer() throws Exception {
+        SpillingLineList list = new SpillingLineList(256, dir, false);
+        StringListWriter writer = new StringListWriter(list);
+        PrintWriter out = new PrintWriter(writer);
+        for (int i = 0; i < 50; i++) {
+            out.println("line " + i);
+        }
+        out.close();
+        List<String> lines = writer.toList();
+        assertTrue(list.isSpilled());
+        assertEquals(50, lines.size());
+        assertEquals("line 49", lines.get(49));
+        list.close();
+    }
+
+    private void check(final boolean mapped) throws Exception {
+        SpillingLineList list = new SpillingLineList(1024, dir, mapped);
+        List<String> expected = lines(list, 1000);
+        assertTrue(list.isSpilled());
+        assertEquals(1, dir.toFile().list().length);
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected, new ArrayList<>(list));
+        for (int i : new int[] { 0, 63, 64, 65, 500, 999 }) {
+            assertEquals(expected.get(i), list.get(i));
+        }
+        try {
+            list.add("late");
+            throw new AssertionError("Lines should not be accepted after reading");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        list.close();
+        assertEquals(0, dir.toFile().list().length);
+    }
+
+    private static List<String> lines(final SpillingLineList list, final int count) {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String line = i % 7 == 0 ? ""
+                    : "line " + i + (i % 3 == 0 ? " \u00fcn\u00efc\u00f6d\u00e9 \u4e2d\u6587" : "");
+            list.add(line);
+            expected.add(line);
+        }
+        return expected;
+    }
+}
@@ -23,7 +23,11 @@ import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -82,4 +86,69 @@ public class StringListWriterTest {
         List<String> list = writer.toList();
         assertEquals(Arrays.asList("This is a test", "This is also a test"), list);
     }
+
+    @Test
+    public void testConsumer() throws IOException {
+        List<String> received = new ArrayList<>();
+        StringListWriter writer = new StringListWriter(line -> received.add(line.toString()));
+        writer.write("first\nsec");
+        assertEquals(Arrays.asList("first"), received);
+        writer.write("ond\r\nthird");
+        assertEquals(Arrays.asList("first", "second"), received);
+        writer.close();
+        assertEquals(Arrays.asList("first", "second", "third"), received);
+        try {
+            writer.toList();
+            fail("Lines are not retained");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        String end = new String("end");
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(1);
+        StringListWriter writer = new StringListWriter(queue, end);
+        Thread producer = new Thread(() -> {
+            try (PrintWriter out = new PrintWriter(writer)) {
+                for (int i = 0; i < 100; i++) {
+                    out.println("line " + i);
+                }
+            }
+        });
+        producer.start();
+        List<String> received = new ArrayList<>();
+        String line;
+        while ((line = queue.poll(10, TimeUnit.SECONDS)) != end) {
+            assertNotNull(line);
+            received.add(line);
+        }
+        producer.join();
+        assertEquals(100, received.size());
+        assertEquals("line 99", received.get(99));
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        StringListWriter writer = new StringListWriter(new CompactLineList());
+        PrintWriter out = new PrintWriter(writer);
+        out.println("This is a test");
+        out.print("This is also a test");
+        out.close();
+        assertEquals(Arrays.asList("This is a test", "This is also a test"), writer.toList());
+        assertEquals("This is also a test", writer.toCharSequenceList().get(1).toString());
+    }
+
+    @Test
+    public void testTerminators() throws IOException {
+        StringListWriter writer = new StringListWriter();
+        writer.write("one\r");
+        writer.write("\ntwo\rthree\n\nfour\r\n".toCharArray());
+        writer.append("fi").append("xvex", 1, 3);
+        writer.write('\r');
+        writer.write("\r\n");
+        // A lone CR is discarded rather than ending the line
+        assertEquals(Arrays.asList("one", "twothree", "", "four", "five"), writer.toList());
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.CharBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link StringReplacingProcessor}
+ *
+ * @author Andrew Taylor
+ */
+public class StringReplacingProcessorTest {
+
+    @Test
+    public void acrossChunks() throws Exception {
+        StringReplacingProcessor processor = new StringReplacingProcessor(new CharSequenceLocator("<<x>>"), "Y");
+        assertEquals("ab", processor.process(CharBuffer.wrap("ab<<")).toString());
+        assertEquals("", processor.process(CharBuffer.wrap("x>")).toString());
+        assertEquals("Ycd", processor.process(CharBuffer.wrap(">cd<")).toString());
+        assertEquals("<", processor.finish().toString());
+    }
+
+    @Test
+    public void dictionary() throws Exception {
+        Map<String, String> replacements = new HashMap<>();
+        replacements.put("cat", "dog");
+        replacements.put("mouse", "rat");
+        StringReplacingProcessor processor = new StringReplacingProcessor(new ReplacementDictionary(replacements));
+        StringBuilder out = new StringBuilder();
+        String input = "the cat chased the mouse past another cat";
+        for (int i = 0; i < input.length(); i += 3) {
+            CharBuffer chunk = CharBuffer.wrap(input, i, Math.min(i + 3, input.length()));
+            out.append(processor.process(chunk));
+            assertFalse(chunk.hasRemaining());
+        }
+        out.append(processor.finish());
+        assertEquals("the dog chased the rat past another dog", out.toString());
+    }
+
+    @Test
+    public void mustNotFollowAcrossChunks() throws Exception {
+        StringReplacingProcessor processor = new StringReplacingProcessor(new CharSequenceLocator("{x}", "$$"), "Y");
+        StringBuilder out = new StringBuilder();
+        out.append(processor.process(CharBuffer.wrap("a$")));
+        out.append(processor.process(CharBuffer.wrap("${")));
+        out.append(processor.process(CharBuffer.wrap("x} $")));
+        out.append(processor.process(CharBuffer.wrap("{x}")));
+        out.append(processor.finish());
+        assertEquals("a$${x} $Y", out.toString());
+    }
+
+    @Test
+    public void emptyChunks() throws Exception {
+        StringReplacingProcessor processor = new StringReplacingProcessor(new CharSequenceLocator("{x}"), "Y");
+        assertEquals("", processor.process(CharBuffer.allocate(0)).toString());
+        assertEquals("", processor.process(CharBuffer.wrap("{")).toString());
+        assertEquals("", processor.process(CharBuffer.allocate(0)).toString());
+        assertEquals("Y", processor.process(CharBuffer.wrap("x}")).toString());
+        assertEquals("", processor.finish().toString());
+    }
+
+    @Test
+    public void finishIdempotent() throws Exception {
+        StringReplacingProcessor processor = new StringReplacingProcessor(new CharSequenceLocator("{x}"), "Y");
+        assertEquals("a", processor.process(CharBuffer.wrap("a{x")).toString());
+        assertEquals("{x", processor.finish().toString());
+        assertEquals("", processor.finish().toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void processAfterFinish() throws Exception {
+        StringReplacingProcessor processor = new StringReplacingProcessor(new CharSequenceLocator("{x}"), "Y");
+        processor.finish();
+        processor.process(CharBuffer.wrap("a"));
+    }
+}
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.StringReader;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 /**
@@ -93,6 +94,26 @@ public class StringReplacingReaderTest {
     public void notPreceding() throws Exception {
         test("alpha \\\\u0000 bravo \\u0000", "alpha \\\\uFFF8 bravo \\u0000");
     }
+    @Test
+    public void smallReadBuffer() throws Exception {
+        String val = "alpha \\\\u0000 beta \\\\u0000\\\\u0000 charlie \\\\u89 \\\\u0000";
+        String expected = val.replaceAll("\\\\u0000", "\\\\uFFF8");
+        for (int bufferSize = 1; bufferSize < 12; bufferSize++) {
+            CharSequenceLocator locator = new CharSequenceLocator("\\\\u0000", "\\");
+            try (StringReplacingReader srr = new StringReplacingReader(new StringReader(val), locator,
+                    "\\\\uFFF8", bufferSize)) {
+                assertEquals(expected, IOUtils.toString(srr));
+            }
+        }
+    }
+    @Test
+    public void caseInsensitive() throws Exception {
+        CharSequenceLocator locator = new CharSequenceLocator("\u00e9t\u00e9", null, CaseFolding.UNICODE);
+        try (StringReplacingReader srr = new StringReplacingReader(
+                new StringReader("\u00c9T\u00c9 \u00e9T\u00e9 \u00c9T\u00c8 \u00c9T"), locator, "summer", 3)) {
+            assertEquals("summer summer \u00c9T\u00c8 \u00c9T", IOUtils.toString(srr));
+        }
+    }
     protected void test(final String val) throws Exception {
         test(val, val.replaceAll("\\\\u0000", "\\\\uFFF8"));
     }
@@ -98,6 +98,48 @@ public class StringReplacingWriterTest {
         test("alpha \\\\u0000 beta", "alpha \\\\u0000 beta");
     }
 
+    @Test
+    public void unbuffered() throws Exception {
+        final StringWriter sw = new StringWriter();
+        Writer target = new Writer() {
+            @Override
+            public void write(final int c) throws IOException {
+                throw new AssertionError("Single character writes should not be used");
+            }
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) throws IOException {
+                sw.write(cbuf, off, len);
+            }
+            @Override
+            public void write(final String str, final int off, final int len) throws IOException {
+                sw.write(str, off, len);
+            }
+            @Override
+            public void flush() throws IOException {
+            }
+            @Override
+            public void close() throws IOException {
+            }
+        };
+        CharSequenceLocator locator = new CharSequenceLocator("\\u0000", "\\");
+        try (StringReplacingWriter srw = new StringReplacingWriter(target, locator, "\\uFFF8")) {
+            srw.write("alpha \\u00");
+            srw.append(new StringBuilder("00 beta \\\\u0000 \\"));
+            srw.write("u0000".toCharArray());
+        }
+        assertEquals("alpha \\uFFF8 beta \\\\u0000 \\uFFF8", sw.toString());
+    }
+    @Test
+    public void caseInsensitive() throws Exception {
+        StringWriter sw = new StringWriter();
+        CharSequenceLocator locator = new CharSequenceLocator("password=", null, CaseFolding.ASCII);
+        try (StringReplacingWriter srw = new StringReplacingWriter(sw, locator, "***=");
+                Writer w = new BufferedWriter(srw, 4)) {
+            w.write("Password=a&PASSWORD=b&PassWord&passworD=");
+        }
+        assertEquals("***=a&***=b&PassWord&***=", sw.toString());
+    }
+
 
     protected void test(final String text) throws IOException {
         test(text, text.replace("\\u0000", "\\uFFF8"));
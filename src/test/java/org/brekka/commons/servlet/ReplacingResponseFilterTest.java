@@ -0,0 +1,299 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brekka.commons.servlet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.brekka.commons.io.ReplacementDictionary;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplacingResponseFilter}
+ *
+ * @author Andrew Taylor
+ */
+public class ReplacingResponseFilterTest {
+
+    private static final ReplacementDictionary DICTIONARY;
+    static {
+        Map<String, String> replacements = new LinkedHashMap<>();
+        replacements.put("${name}", "Zo\u00eb");
+        replacements.put("${place}", "Wonderland");
+        DICTIONARY = new ReplacementDictionary(replacements);
+    }
+
+    @Test
+    public void writer() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentLength(100);
+            res.setContentType("text/html;charset=UTF-8");
+            res.getWriter().print("Hello ${name} of ${pla");
+            res.getWriter().print("ce}");
+        });
+        assertEquals("Hello Zo\u00eb of Wonderland", response.body());
+        assertNull(response.headers.get("Content-Length"));
+    }
+    @Test
+    public void outputStream() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("application/json");
+            res.setCharacterEncoding("UTF-8");
+            res.setHeader("Content-Length", "100");
+            OutputStream out = res.getOutputStream();
+            // Byte at a time, splitting the multi-byte characters
+            for (byte b : "{\"\u00e9\":\"${name}\u00e9${place}\"}".getBytes(StandardCharsets.UTF_8)) {
+                out.write(b);
+            }
+        });
+        assertEquals("{\"\u00e9\":\"Zo\u00eb\u00e9Wonderland\"}", response.body());
+        assertNull(response.headers.get("Content-Length"));
+    }
+    @Test
+    public void malformed() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/plain;charset=UTF-8");
+            OutputStream out = res.getOutputStream();
+            out.write("${name} ${pl".getBytes(StandardCharsets.UTF_8));
+            // Not valid UTF-8, so the rest is passed through untouched rather than replaced
+            out.write(new byte[] { (byte) 0xff, (byte) 0xc3 });
+            out.write("ace}".getBytes(StandardCharsets.UTF_8));
+            out.write(new byte[] { (byte) 0xc3 });
+        });
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write("Zo\u00eb ${pl".getBytes(StandardCharsets.UTF_8));
+        expected.write(new byte[] { (byte) 0xff, (byte) 0xc3 });
+        expected.write("ace}".getBytes(StandardCharsets.UTF_8));
+        expected.write(new byte[] { (byte) 0xc3 });
+        assertArrayEquals(expected.toByteArray(), response.bytes.toByteArray());
+    }
+    @Test
+    public void truncated() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/plain;charset=UTF-8");
+            // The last character is incomplete, which is only known once the body is complete
+            res.getOutputStream().write(new byte[] { '$', '{', 'n', 'a', 'm', 'e', '}', (byte) 0xc3 });
+        });
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write("Zo\u00eb".getBytes(StandardCharsets.UTF_8));
+        expected.write((byte) 0xc3);
+        assertArrayEquals(expected.toByteArray(), response.bytes.toByteArray());
+    }
+    @Test
+    public void contentLengthLong() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/plain");
+            ((ReplacingResponseWrapper) res).setContentLengthLong(7L);
+            res.getWriter().print("${name}");
+        });
+        assertEquals("Zo\u00eb", response.body());
+        assertNull(response.headers.get("Content-Length"));
+    }
+    @Test
+    public void writeAfterClose() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/plain");
+            OutputStream out = res.getOutputStream();
+            out.close();
+            try {
+                out.write('a');
+                fail("Writing to a closed stream should fail");
+            } catch (IOException e) {
+                // Expected
+            }
+        });
+    }
+    @Test
+    public void latin1() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/plain");
+            res.getOutputStream().write("\u00e9${name}".getBytes(StandardCharsets.ISO_8859_1));
+        });
+        assertEquals("\u00e9Zo\u00eb", response.body());
+    }
+    @Test
+    public void notText() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentLength(7);
+            res.setContentType("image/png");
+            res.getOutputStream().write("${name}".getBytes(StandardCharsets.UTF_8));
+        });
+        assertEquals("${name}", response.body());
+        assertEquals("7", response.headers.get("Content-Length"));
+    }
+    @Test
+    public void encoded() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/html");
+            res.setHeader("Content-Encoding", "gzip");
+            res.getWriter().print("${name}");
+        });
+        assertEquals("${name}", response.body());
+    }
+    @Test
+    public void noBody() throws Exception {
+        MockResponse response = new MockResponse();
+        filter(response, res -> {
+            res.setContentType("text/html");
+            res.setIntHeader("Content-Length", 42);
+        });
+        assertEquals("42", response.headers.get("Content-Length"));
+    }
+    @Test
+    public void initParameters() throws Exception {
+        ReplacingResponseFilter filter = new ReplacingResponseFilter();
+        filter.init(new MockConfig(Collections.singletonMap("@@", "at")));
+        MockResponse response = new MockResponse();
+        HttpServletResponse proxy = response.proxy();
+        filter.doFilter(null, proxy, (req, res) -> {
+            res.setContentType("text/plain");
+            res.getWriter().print("@@home");
+        });
+        assertEquals("athome", response.body());
+    }
+
+    private interface Body {
+        void write(HttpServletResponse response) throws IOException;
+    }
+
+    private static void filter(final MockResponse response, final Body body) throws Exception {
+        ReplacingResponseFilter filter = new ReplacingResponseFilter(DICTIONARY);
+        FilterChain chain = (req, res) -> body.write((HttpServletResponse) res);
+        filter.doFilter(null, response.proxy(), chain);
+    }
+
+    /**
+     * Just enough of a response for the filter, the rest of the methods do nothing.
+     */
+    private static final class MockResponse {
+        private final Map<String, String> headers = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private String contentType;
+        private String characterEncoding = "ISO-8859-1";
+        private PrintWriter writer;
+
+        String body() throws Exception {
+            if (writer != null) {
+                writer.flush();
+            }
+            return bytes.toString(characterEncoding);
+        }
+
+        HttpServletResponse proxy() {
+            return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { HttpServletResponse.class }, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "getContentType":
+                        return contentType;
+                    case "setContentType":
+                        contentType = (String) args[0];
+                        int charset = contentType.indexOf("charset=");
+                        if (charset >= 0) {
+                            characterEncoding = contentType.substring(charset + 8);
+                        }
+                        return null;
+                    case "getCharacterEncoding":
+                        return characterEncoding;
+                    case "setCharacterEncoding":
+                        characterEncoding = (String) args[0];
+                        return null;
+                    case "setContentLength":
+                        headers.put("Content-Length", String.valueOf(args[0]));
+                        return null;
+                    case "setHeader":
+                    case "addHeader":
+                    case "setIntHeader":
+                    case "addIntHeader":
+                        headers.put((String) args[0], String.valueOf(args[1]));
+                        return null;
+                    case "getWriter":
+                        if (writer == null) {
+                            writer = new PrintWriter(new OutputStreamWriter(bytes, characterEncoding));
+                        }
+                        return writer;
+                    case "getOutputStream":
+                        return new ServletOutputStream() {
+                            @Override
+                            public void write(final int b) throws IOException {
+                                bytes.write(b);
+                            }
+                        };
+                    default:
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                }
+            });
+        }
+    }
+
+    private static final class MockConfig implements FilterConfig {
+        private final Map<String, String> parameters;
+
+        MockConfig(final Map<String, String> parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public String getFilterName() {
+            return "replacing";
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return null;
+        }
+
+        @Override
+        public String getInitParameter(final String name) {
+            return parameters.get(name);
+        }
+
+        @Override
+        public Enumeration<?> getInitParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+    }
+}